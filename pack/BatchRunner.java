@@ -0,0 +1,236 @@
+package pack;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+// Runs the solver over every instanceNN of a directory, -seeds times each, and summarises the runs like benchmarks_DMOgroup07.xlsx.
+// Each run is a separate JVM (Main -summary), so that runs do not share the random streams, the heap or the output files. Up to
+// jobs runs execute at the same time, each in its own directory under <prefix>_runs. The solution of every run is scored again by
+// SolutionValidator, and the run is discarded if it is infeasible.
+// Without -budget the runs are not seeded and their schedules follow the time limit, as in the spreadsheet. With -budget every run is
+// seeded (1..N) and reproducible, and its schedules follow that many iterations (moves for the SA), stopping earlier if time is up.
+// Usage: BatchRunner directory -t seconds [-seeds N] [-budget B] [-jobs J] [-out prefix] [options of Main ...]
+// Writes <prefix>.csv, one line per instance, and <prefix>.json, which also holds every run. Both record the time limit and the budget.
+public class BatchRunner {
+	final private static int MARGIN = 60;		//seconds a run may take beyond its time limit (JVM start, loading, writing) before it is killed
+	final private static int TAIL = 20;			//last lines of the output of a run, shown if it fails
+	// Benchmark penalties of the instances, the reference of the gap column of the spreadsheet
+	private static final Map<String, Double> BENCHMARKS = new HashMap<>();
+	static {
+		BENCHMARKS.put("instance01", 157.032733);
+		BENCHMARKS.put("instance02", 34.70882);
+		BENCHMARKS.put("instance03", 32.626667);
+		BENCHMARKS.put("instance04", 7.717202);
+		BENCHMARKS.put("instance05", 12.901103);
+		BENCHMARKS.put("instance06", 3.044578);
+		BENCHMARKS.put("instance07", 10.050301);
+		BENCHMARKS.put("instance08", 24.769);
+	}
+
+	// One execution of the solver
+	private static class Run {
+		int seed;
+		double penalty, timeToBest, iterationsPerSecond;
+		long peakHeap;
+	}
+
+	public static void main(String[] args) throws IOException, InterruptedException {
+		if(args.length < 3 || !args[1].equals("-t")) {
+			System.out.println("Usage: BatchRunner directory -t seconds [-seeds N] [-budget B] [-jobs J] [-out prefix] [options of Main ...]");
+			System.exit(-1);
+		}
+		File directory = new File(args[0]);
+		String seconds = Integer.toString(Integer.parseInt(args[2]));
+		int seeds = 5;
+		int jobs = Runtime.getRuntime().availableProcessors();
+		String prefix = "batch";
+		String budget = null;		//null for time driven, unseeded runs
+		List<String> options = new ArrayList<>();		//passed on to Main
+		for(int i = 3; i < args.length; i++) {
+			if(args[i].equals("-seeds") && i + 1 < args.length)
+				seeds = Integer.parseInt(args[++i]);
+			else if(args[i].equals("-jobs") && i + 1 < args.length)
+				jobs = Integer.parseInt(args[++i]);
+			else if(args[i].equals("-out") && i + 1 < args.length)
+				prefix = args[++i];
+			else if(args[i].equals("-budget") && i + 1 < args.length)
+				budget = Long.toString(Long.parseLong(args[++i]));
+			else if(args[i].equals("-seed") || args[i].equals("--seed")) {
+				System.out.println("Arguments error! The runs are seeded 1..N when there is a -budget");
+				System.exit(-1);
+			}
+			else
+				options.add(args[i]);
+		}
+
+		String[] names = directory.list((dir, name) -> name.matches("instance\\d+\\.exm"));
+		if(names == null || names.length == 0) {
+			Telemetry.error("No instance in " + directory);
+			System.exit(-1);
+		}
+		for(int i = 0; i < names.length; i++)
+			names[i] = names[i].substring(0, names[i].length() - ".exm".length());
+		Arrays.sort(names);
+
+		File runs = new File(prefix + "_runs");
+		ExecutorService pool = Executors.newFixedThreadPool(jobs);
+		Map<String, List<Future<Run>>> results = new HashMap<>();
+		Map<String, Instance> instances = new HashMap<>();
+		for(String name : names) {
+			Instance loaded = new Instance(new File(directory, name).getPath());
+			instances.put(name, loaded);
+			List<Future<Run>> futures = new ArrayList<>();
+			for(int seed = 1; seed <= seeds; seed++) {
+				File dir = new File(runs, name + "_" + seed);
+				File instance = new File(directory, name).getAbsoluteFile();
+				int s = seed;
+				String b = budget;
+				futures.add(pool.submit(() -> run(loaded, instance, dir, seconds, b, s, options)));
+			}
+			results.put(name, futures);
+		}
+		pool.shutdown();
+
+		try(PrintWriter csv = new PrintWriter(prefix + ".csv"); PrintWriter json = new PrintWriter(prefix + ".json")) {
+			csv.println("Time limit [s],Budget,Instance,Exams,Students,Enrolments,Timeslots,Density,Benchmark,Best,Gap %,Average,Worst,Runs,Time to best [s],Iterations/s,Peak heap [MB]");
+			json.println("{\"seconds\": " + seconds + ", \"budget\": " + (budget == null ? "null" : budget) + ", \"schedules\": \""
+					+ (budget == null ? "time" : "iterations") + "\", \"seeds\": " + seeds + ", \"instances\": [");
+			for(int k = 0; k < names.length; k++) {
+				String name = names[k];
+				List<Run> done = new ArrayList<>();
+				for(Future<Run> f : results.get(name))
+					try {
+						Run r = f.get();
+						if(r != null)
+							done.add(r);
+					} catch(ExecutionException e) {
+						Telemetry.error(name + ": " + e.getCause());
+					}
+				Instance instance = instances.get(name);
+				int exams = instance.getNumberOfExams();
+				long enrollments = instance.getListOfExamsPerStudent().values().stream().mapToInt(l -> l.size()).sum();
+				double density = (double) instance.getNeighbourStart()[instance.getMaxExam() + 1] / ((long) exams * (exams - 1));
+				Double benchmark = BENCHMARKS.get(name);
+				double best = done.stream().mapToDouble(r -> r.penalty).min().orElse(Double.NaN);
+				double average = done.stream().mapToDouble(r -> r.penalty).average().orElse(Double.NaN);
+				double worst = done.stream().mapToDouble(r -> r.penalty).max().orElse(Double.NaN);
+				double gap = benchmark == null ? Double.NaN : 100 * (best - benchmark) / benchmark;
+				double timeToBest = done.stream().mapToDouble(r -> r.timeToBest).average().orElse(Double.NaN);
+				double iterationsPerSecond = done.stream().mapToDouble(r -> r.iterationsPerSecond).average().orElse(Double.NaN);
+				long peakHeap = done.stream().mapToLong(r -> r.peakHeap).max().orElse(0);
+
+				csv.println(String.format(Locale.ROOT, "%s,%s,%s,%d,%d,%d,%d,%.2f,%s,%.6f,%.2f,%.6f,%.6f,%d,%.3f,%.1f,%.1f", seconds,
+						budget == null ? "" : budget, name, exams,
+						instance.getNumberOfStudents(), enrollments, instance.getNumberOfSlots(), density, benchmark == null ? "" : benchmark.toString(),
+						best, gap, average, worst, done.size(), timeToBest, iterationsPerSecond, peakHeap / 1048576.0));
+				json.println(String.format(Locale.ROOT, "  {\"instance\": \"%s\", \"exams\": %d, \"students\": %d, \"enrolments\": %d, \"timeslots\": %d, "
+						+ "\"density\": %.4f, \"benchmark\": %s, \"best\": %s, \"gap\": %s, \"average\": %s, \"worst\": %s, \"runs\": [", name, exams,
+						instance.getNumberOfStudents(), enrollments, instance.getNumberOfSlots(), density, benchmark == null ? "null" : benchmark.toString(),
+						number(best), number(gap), number(average), number(worst)));
+				for(int i = 0; i < done.size(); i++) {
+					Run r = done.get(i);
+					json.println(String.format(Locale.ROOT, "    {\"run\": %d, \"seed\": %s, \"penalty\": %.6f, \"timeToBest\": %.3f, \"iterationsPerSecond\": %.1f, \"peakHeap\": %d}%s",
+							r.seed, budget == null ? "null" : Integer.toString(r.seed), r.penalty, r.timeToBest, r.iterationsPerSecond, r.peakHeap, i < done.size() - 1 ? "," : ""));
+				}
+				json.println("  ]}" + (k < names.length - 1 ? "," : ""));
+			}
+			json.println("]}");
+		}
+		System.out.println("Written " + prefix + ".csv and " + prefix + ".json");
+	}
+
+	// Run Main on one instance and seed in dir, where it writes its solution and its conflict matrix. Null if the run gave no summary
+	// or no feasible solution
+	// seed is only the number of the run if there is no budget
+	private static Run run(Instance loaded, File instance, File dir, String seconds, String budget, int seed, List<String> options)
+			throws IOException, InterruptedException {
+		dir.mkdirs();
+		List<String> command = new ArrayList<>(Arrays.asList(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java",
+				"-cp", absoluteClassPath(), "pack.Main", instance.getPath(), "-t", seconds,
+				"-out", new File(dir, instance.getName()).getAbsolutePath(), "-q", "-summary"));
+		if(budget != null)
+			command.addAll(Arrays.asList("-seed", Integer.toString(seed), "-budget", budget));
+		command.addAll(options);
+		Process process = new ProcessBuilder(command).directory(dir).redirectErrorStream(true).start();
+		Deque<String> tail = new ArrayDeque<>();
+		String[] summary = new String[1];
+		Thread reader = new Thread(() -> {		//drains the output while the run goes on, so that a full pipe cannot block it
+			try(BufferedReader out = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+				String line;
+				while((line = out.readLine()) != null)
+					if(line.startsWith("summary "))
+						summary[0] = line;
+					else {
+						tail.addLast(line);
+						if(tail.size() > TAIL)
+							tail.removeFirst();
+					}
+			} catch(IOException e) {
+				tail.addLast(e.toString());
+			}
+		});
+		reader.start();
+		String failure = null;
+		if(!process.waitFor(Integer.parseInt(seconds) + MARGIN, TimeUnit.SECONDS)) {
+			process.destroyForcibly();
+			failure = "killed after " + (Integer.parseInt(seconds) + MARGIN) + " s";
+		}
+		reader.join();		//the output is complete once the process is over
+		if(failure == null && summary[0] == null)
+			failure = "no summary, exit code " + process.exitValue();
+		if(failure != null) {
+			Telemetry.error(instance.getName() + " run " + seed + ": " + failure);
+			for(String line : tail)
+				Telemetry.error("\t" + line);
+			return null;
+		}
+		for(String line : tail)		//the budget was not spent: the run is not comparable with the others
+			if(line.contains("time is up after"))
+				Telemetry.error(instance.getName() + " run " + seed + ": " + line);
+		String[] f = summary[0].split(" ");
+		Run run = new Run();
+		run.seed = seed;
+		run.penalty = Double.parseDouble(f[1]);
+		run.timeToBest = Double.parseDouble(f[2]);
+		run.iterationsPerSecond = Long.parseLong(f[3]) / Double.parseDouble(f[4]);
+		run.peakHeap = Long.parseLong(f[5]);
+		SolutionValidator.Result validation = SolutionValidator.validate(loaded, new File(dir, instance.getName() + "_DMOgroup07.sol").getPath());
+		if(!validation.isFeasible()) {
+			Telemetry.error(instance.getName() + " run " + seed + ": " + validation);
+			return null;
+		}
+		run.penalty = validation.getPenalty();		//the penalty of the file, not the one reported by the solver
+		Telemetry.info(String.format(Locale.ROOT, "%s run %d: penalty %.6f", instance.getName(), seed, run.penalty));
+		return run;
+	}
+
+	// The class path of this JVM with absolute entries, since the runs start in their own directories
+	private static String absoluteClassPath() {
+		List<String> entries = new ArrayList<>();
+		for(String entry : System.getProperty("java.class.path").split(File.pathSeparator))
+			if(!entry.isEmpty())
+				entries.add(new File(entry).getAbsolutePath());
+		return String.join(File.pathSeparator, entries);
+	}
+
+	private static String number(double x) {
+		return Double.isNaN(x) ? "null" : String.format(Locale.ROOT, "%.6f", x);
+	}
+
+}
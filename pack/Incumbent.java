@@ -0,0 +1,37 @@
+package pack;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+// Best solution found by any of the engines running at the same time. Lock free: an engine offering a better solution publishes it
+// with a compare-and-set, and only the incumbent talks to the solution writer.
+public class Incumbent {
+	private final AtomicReference<Individual> best = new AtomicReference<>();
+	private final SolutionWriter writer;
+
+	public Incumbent(SolutionWriter writer) {
+		this.writer = writer;
+	}
+
+	// The offered individual must not be modified afterwards. Returns true if it became the incumbent
+	public boolean offer(Individual candidate) {
+		Individual current;
+		do {
+			current = best.get();
+			if (current != null && current.getPenalty() <= candidate.getPenalty())
+				return false;
+		} while (!best.compareAndSet(current, candidate));
+		// Writes can be submitted out of order by concurrent offers: submit until the incumbent is the one just submitted,
+		// so the last submission is always the best solution
+		do {
+			current = best.get();
+			writer.submit(current);
+		} while (best.get() != current);
+		return true;
+	}
+
+	// null if nothing has been offered yet
+	public Individual get() {
+		return best.get();
+	}
+
+}
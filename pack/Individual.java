@@ -1,684 +1,921 @@
-package pack;
-
-import java.io.FileWriter;
-import java.io.IOException;
-import java.io.PrintWriter;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Map;
-import java.util.Random;
-import java.util.Set;
-import java.util.TreeMap;
-
-public class Individual {
-	//private static final int MAX_ITER = 12;
-	//private static final int SEED = 42;
-	private static final int MAX_CROSSOVER_TRIES = 3;
-
-	private Random rng = new Random();
-	
-	private Instance instance;
-	private Map<Integer,Integer> assignment = new HashMap<>();
-	private List<Set<Integer>> timeslots = new ArrayList<>();	// BEWARE!! Index == 0 is unused
-	private List<Set<Integer>> acceptableExamsPerTimeslot;		// this will be kept up-to-date as mutations and crossovers happen
-	private int[] penaltyPerSlot;
-	private float fitness;
-
-	private static int individualCounter = 0;
-	private int individualId;
-
-	// Returns true if exam is in conflict with another one scheduled in slot
-	public Boolean hasConflict(Integer slot, Integer exam, Map<Integer,Integer> assignment, Integer[][] conflictMatrix) {
-		for(Map.Entry<Integer,Integer> e : assignment.entrySet()) {
-			if(e.getValue() == slot) {
-				if(conflictMatrix[exam][e.getKey()] != 0)
-					return true;
-			}
-		}
-		return false;
-	}
-
-	public boolean checkFeasibility(Map<Integer,Integer> assignment, Integer[][] conflictMatrix) {
-		boolean flag = true;
-		for(Map.Entry<Integer,Integer> e1 : assignment.entrySet()) {
-			for(Map.Entry<Integer,Integer> e2 : assignment.entrySet()) {
-				if(e1.getValue() == e2.getValue() && conflictMatrix[e1.getKey()][e2.getKey()] != 0) {
-					//System.out.println("Conflicting exams " + e1.getKey() + " and " + e2.getKey() + " are both scheduled in slot " + e1.getValue());
-					flag = false;
-				}
-			}
-		}
-		return flag;
-	}
-
-	public float computePenalty(Integer[][] conflictMatrix, Integer numberOfStudents) {
-		float p = 0;
-		Integer slot1,slot2;
-		Integer[] conflicts;
-		for(int exam1 = 1; exam1 < conflictMatrix.length; exam1++) {
-			conflicts = conflictMatrix[exam1];
-			slot1 = this.assignment.get(exam1);
-			for(int exam2 = exam1 + 1; exam2 < conflicts.length; exam2++) {
-				slot2 = this.assignment.get(exam2);
-				if(conflicts[exam2] != 0 && Math.abs(slot1 - slot2) <= 5)
-					p += Math.pow(2, 5 - Math.abs(slot1 - slot2))*conflicts[exam2];
-			}
-		}
-		return p/numberOfStudents;
-	}
-
-	private void updateFitness(Integer exam, int formerSlot, int destTimeslot, Integer[][] matrix) {
-		float p = 1/fitness*instance.getNumberOfStudents();
-		int startIndex, endIndex;
-		// Subtract the contribution to penalty of the previous position
-		startIndex = (formerSlot - 5 < 1)? 1 : formerSlot-5;
-		endIndex = (formerSlot + 5 > timeslots.size()-1)? timeslots.size()-1 : formerSlot+5;
-		for (int i=startIndex; i<= endIndex; i++) {
-			if (i == formerSlot) continue;		// ignore the former slot as there are no conflicts
-			int stud_count = timeslots.get(i).stream().map(e -> matrix[exam][e]).mapToInt(Integer::intValue).sum();
-			p -= Math.pow(2, 5 - Math.abs(i-formerSlot))*stud_count;
-		}
-			// Add the contribution of the new one
-		startIndex = (destTimeslot - 5 < 1)? 1 : destTimeslot-5;
-		endIndex = (destTimeslot + 5 > timeslots.size()-1)? timeslots.size()-1 : destTimeslot+5;
-		for (int i=startIndex; i<= endIndex; i++) {
-			if (i == destTimeslot) continue;		// ignore the final slot as there are no conflicts
-			int stud_count = timeslots.get(i).stream().map(e -> matrix[exam][e]).mapToInt(Integer::intValue).sum();
-			p += Math.pow(2, 5 - Math.abs(i-destTimeslot))*stud_count;
-		}
-		this.fitness = 1 / (p/instance.getNumberOfStudents());
-	}
-
-	private void updateAcceptabilities(Integer exam, int formerSlot, int destTimeslot, Integer[][] matrix) {
-		HashSet<Integer> conflicts = new HashSet<>();
-		for (Integer other=1; other <= instance.getNumberOfExams(); other++)
-			if (matrix[exam][other] != 0) {
-				conflicts.add(other);
-				// Then check if "roommates" in the former slot share this conflict,
-				// to decide whether it can be removed or not.
-				if(formerSlot > 0) {
-					boolean is_shared = false;
-					for (Integer formerRoommate : timeslots.get(formerSlot))
-						if (matrix[formerRoommate][other] != 0) {
-							is_shared = true;
-							break;
-						}
-					if (!is_shared)	// conflict removed
-						acceptableExamsPerTimeslot.get(formerSlot).add(other);
-				}
-			}
-		acceptableExamsPerTimeslot.get(destTimeslot).removeAll(conflicts);
-		if(formerSlot > 0)
-			acceptableExamsPerTimeslot.get(formerSlot).add(exam);	// the given exam is also acceptable in the timeslots where it comes from
-	}
-
-	// Generation of an individual, greedy
-	public Individual(Instance instance) {
-		this.individualId = this.newId();
-		// METHOD 1: 	exams ordered for total number of conflicting students, for each exam randomly select a slot and if there is no conflict it
-		// 				is assigned. if conflict, randomly try with the other slots, if no one is ok restart from the beginning.
-		// Random r = new Random(SEED);
-		/*Random r = new Random();
-		Integer slot, counter;
-		List<Integer> tried;
-		Boolean end = false;
-		while(!end) {
-			end = true;
-			this.assignment = new TreeMap<>();
-			for(int exam : instance.getConflictingStudents().keySet()) {
-				counter = 0;
-				tried = new ArrayList<>();
-				do {
-					do
-						slot = r.ints(1, 1, instance.getNumberOfSlots() + 1).findFirst().getAsInt();
-					while(tried.contains(slot));	//try once for each slot
-					tried.add(slot);
-				} while(hasConflict(slot, exam, this.assignment, instance.getConflictMatrix()) && counter++ < instance.getNumberOfSlots()-1);
-				// try until a non conflicting slot is found, after MAX_ITER iterations restart generation
-
-				if(counter >= instance.getNumberOfSlots()-1) {
-					end = false;
-					break;
-				} else
-					this.assignment.put(exam, slot);
-			}
-		}*/
-
-		// METHOD 2:	based on number of possible slots per exam. map each exam to its possible slot and number of possible slots to exam with that number.
-		//				at each iteration randomly selects one of the exams with the lowest number of possible slots, one of its available slots, assigns it
-		//				and updates possible slots for conflicting exams. in case an exam can't be placed anywhere restart.
-		this.instance = instance;
-		//Random rng = new Random();
-		for (int i=0; i<instance.getNumberOfSlots()+1; i++)
-			this.timeslots.add(new HashSet<>());
-		Map<Integer,List<Integer>> possible = new HashMap<>();		//maps exam to list of its feasible timeslots
-		Map<Integer,List<Integer>> numPossible = new TreeMap<>();	//maps number of possible timeslots to list of exam with that number of possible slots
-		Integer first;
-		Integer exam,slot;
-		Integer[] slots = new Integer[instance.getNumberOfSlots()], conflicts;
-		for(int i = 1; i <= instance.getNumberOfSlots(); i++) {
-			slots[i-1] = i;
-		}
-		numPossible.put(instance.getNumberOfSlots() - 1, new ArrayList<>());	//initialization
-		for(int i = 1; i <= instance.getMaxExam(); i++) {
-			possible.put(i, new ArrayList<>(Arrays.asList(slots)));
-			numPossible.get(instance.getNumberOfSlots() - 1).add(i);
-		}
-
-		while(!possible.isEmpty()) {	//stop when all exams are assigned
-			first = numPossible.keySet().iterator().next();
-			exam = numPossible.get(first).get(rng.nextInt(numPossible.get(first).size()));	//randomly selects one of the exam that can be placed in less slots
-			//if(!this.assignment.containsKey(exam)) {
-			conflicts = instance.getConflictMatrix()[exam];
-			if(possible.get(exam).size() <= 0) {	//if exam can't be placed anywhere start again
-				possible = new HashMap<>();
-				numPossible = new TreeMap<>();
-				numPossible.put(instance.getNumberOfSlots() - 1, new ArrayList<>());
-				for(Set<Integer> ts : timeslots)
-					ts.clear();
-				for(int i = 1; i <= instance.getMaxExam(); i++) {
-					possible.put(i, new ArrayList<>(Arrays.asList(slots)));
-					numPossible.get(instance.getNumberOfSlots() - 1).add(i);
-				}
-				continue;
-			}
-			slot = possible.get(exam).get(rng.nextInt(possible.get(exam).size()));	//get one of possible timeslots
-			this.assignment.put(exam, slot);
-			this.timeslots.get(slot).add(exam);
-			possible.remove(exam);		//exam is assigned, is removed
-
-			for(int i = 1; i < conflicts.length; i++) {		//update possible slots based on conflicts
-				if(conflicts[i] != 0 && possible.containsKey(i))
-					possible.get(i).remove(slot);
-			}
-
-			numPossible = new TreeMap<>();		//update number of possible slots
-			for(int i : possible.keySet()) {
-				if(!numPossible.containsKey(possible.get(i).size()))
-					numPossible.put(possible.get(i).size(), new ArrayList<>());
-				numPossible.get(possible.get(i).size()).add(i);
-			}
-			//}
-		}
-
-		// Compute fitness
-		this.fitness = 1 / computePenalty(instance.getConflictMatrix(), instance.getNumberOfStudents());	//inverse objective function
-		this.acceptableExamsPerTimeslot = computeAcceptabilitiesPerTimeslot();
-	}
-
-	public void printIndividual() {
-		//System.out.println(this.assignment);
-	}
-
-	public void printIndividual(String fileName) throws IOException {
-		FileWriter fw = new FileWriter(fileName);
-		PrintWriter pw = new PrintWriter(fw);
-		for(Map.Entry<Integer, Integer> e : this.assignment.entrySet()) {
-			//System.out.println(e.getKey() + " " + e.getValue());
-			pw.println(e.getKey() + " " + e.getValue());
-		}
-		pw.close();
-		//fw.close();
-	}
-
-	// List all the exams that can be moved to any given timeslots, for all timeslots
-	private List<Set<Integer>> computeAcceptabilitiesPerTimeslot(){
-		List<Set<Integer>> ret = new ArrayList<>();
-		ret.add(new HashSet<>()); 	// empty list for timeslot 0, which is not used
-		int k=0, nExams = instance.getNumberOfExams();
-		Integer[][] matrix = instance.getConflictMatrix();
-		List<Integer> originalList = instance.getExamList();
-		for (Set<Integer> slot : this.timeslots) {
-			if (k++ == 0) 	// timeslot 0 is fictious
-				continue;
-			Set<Integer> exams = new HashSet<>(originalList);	// new object to avoid modifications
-			for (Integer exam : slot) {
-				// Remove all the exams that are in conflict with those in the timeslot,
-				// and those exams themselves as they are already in.
-				for (Integer otherExam=1; otherExam <= nExams; otherExam++)
-					if (matrix[exam][otherExam] != 0)
-						exams.remove(otherExam);
-				exams.remove(exam);
-			}
-			ret.add(exams);		// the remaining ones can still be added to this timeslot without causing issues
-		}
-		return ret;
-	}
-
-	// Move an exam from its current assignment to a destination timeslot (use in conjunction with acceptabilities
-	public void moveExam(Integer exam, Integer destTimeslot) {
-		Integer formerSlot = assignment.get(exam);
-		//System.out.println("Moving exam " + exam + " in slot " + destTimeslot);
-
-		// Move the exam in the assignments and temporarily remove it from timeslots for computations
-		timeslots.get(formerSlot).remove(exam);
-		assignment.put(exam, destTimeslot);
-
-		// Update acceptabilities
-		updateAcceptabilities(exam, formerSlot, destTimeslot, instance.getConflictMatrix());
-
-		// Update fitness, to avoid recomputing it entirely
-		updateFitness(exam, formerSlot, destTimeslot, instance.getConflictMatrix());
-		
-		// Place the exam in the new timeslot, now that all computations are done
-		timeslots.get(destTimeslot).add(exam);
-	}
-
-	// Move a randomly chosen exam to another timeslot, maintaining feasibility.
-	public Individual mutate() {
-		//System.out.println("\nStarting exam mutation...");
-		Individual toModify = this.clone();
-		Individual toReturnIfError = this.clone();
-		toReturnIfError.individualId = newId();
-		//Random rng = new Random();
-		toModify.computePenaltyPerSlot();
-
-		// Pick a timeslot in a probabilistic manner based on penalty
-		int slot = randomSlotByProbability(toModify.penaltyPerSlot);
-
-		// Pick an acceptable exam for that timeslot in a random way (try to avoid local minima)
-		//this.acceptableExamsPerTimeslot = computeAcceptabilitiesPerTimeslot();
-		List<Integer> acceptables = new ArrayList<>(toModify.acceptableExamsPerTimeslot.get(slot));
-		if (acceptables.isEmpty()) return toReturnIfError; 	// no mutations could be performed
-		Collections.shuffle(acceptables);
-		int exam = acceptables.get(rng.nextInt(acceptables.size()));
-
-		// Move the chosen exam in the new timeslot
-		toModify.moveExam(exam, slot);
-		toModify.individualId = newId();		// if a mutation happened the ID is different
-		return toModify;
-	}
-
-	// Compute penalty caused by each slot
-	private void computePenaltyPerSlot() {
-		penaltyPerSlot = new int[instance.getNumberOfSlots() + 1];
-		int slot = 0, other;
-		float res;
-		Integer[] conflicts;
-
-		for(Set<Integer> exams : this.timeslots) {
-			if (slot == 0) { 	// timeslot 0 is fictious
-				slot++;
-				continue;
-			}
-			//int startIndex = (slot - 5 < 1)? 1 : slot-5;
-			int endIndex = (slot + 5 > timeslots.size()-1)? timeslots.size()-1 : slot+5;
-			for(int exam : exams) {		//for each exam in slot
-				conflicts = instance.getConflictMatrix()[exam];
-				for(int i = 1; i < conflicts.length; i++) {
-					other = this.assignment.get(i);		//timeslot of exam i
-					if(other > slot && other <= endIndex) {
-						res = (float) (Math.pow(2, 5 - Math.abs(slot - other))*conflicts[i]); 	//if the two exams are in same slot conflicts[i]==0
-						penaltyPerSlot[slot] += (int) res;
-						penaltyPerSlot[other] += (int) res;
-					}
-				}
-			}
-			slot++;
-		}
-	}
-
-	// Pick a random slot probabilistically based on penalty
-	private int randomSlotByProbability(int[] probabilities) {
-		//Random rng = new Random();
-		int tot = Arrays.stream(probabilities).sum(), slot=0;
-		int value = rng.nextInt(tot) - probabilities[slot];
-		while (value >= 0) {
-			slot ++;
-			value -= probabilities[slot];
-		}
-		return slot;
-	}
-
-	// Select two slots in a probabilistic manner and swap them
-	public Individual swapSlots() {
-		Individual modify = this.clone();
-		Individual original = this.clone();
-		
-		int slot1 = 0, slot2 = 0;
-		modify.computePenaltyPerSlot();
-		//System.out.println("\nStarting slot swapping...");
-		slot1 = randomSlotByProbability(modify.penaltyPerSlot);
-		slot2 = randomSlotByProbability(modify.penaltyPerSlot);
-
-		if(slot1 == slot2)  {
-			//System.out.println("Slot " + slot1 + " extracted two times, exit");
-			original.individualId = newId();
-			return original;
-		}
-
-		//System.out.println("Swapping exams " + slot1 + " and " + slot2 + "...");
-		//Integer[][] matrix = instance.getConflictMatrix();
-		//update assignments, fitness and acceptabilities
-		for(int exam : modify.timeslots.get(slot1)) {
-			modify.assignment.replace(exam, slot2);
-			//updateFitness(exam, slot1, slot2, matrix);
-		}
-		for(int exam : modify.timeslots.get(slot2)) {
-			modify.assignment.replace(exam, slot1);
-			//updateFitness(exam, slot2, slot1, matrix);
-		}
-		Collections.swap(modify.timeslots, slot1, slot2);
-
-		//System.out.println("Done!");
-		modify.fitness = 1 / modify.computePenalty(instance.getConflictMatrix(), instance.getNumberOfStudents());	//inverse objective function
-		modify.acceptableExamsPerTimeslot = modify.computeAcceptabilitiesPerTimeslot();
-		modify.individualId = newId();
-		return modify;
-	}
-
-	//empty an expensive timeslot and try to move the exams, TODO: decide if destination is slot that contributes more or less to total penalty
-	public Individual desrupt() {
-		//Random rng = new Random();
-		Individual modify = this.clone();
-		//System.out.println("\nStarting slot destruction...");
-		modify.computePenaltyPerSlot();
-		int slot = 0, minp, newSlot = 0;
-		List<Integer> possibleSlots = new ArrayList<>();
-		slot = randomSlotByProbability(modify.penaltyPerSlot);
-
-		//System.out.println("Slot " + slot + " extracted");
-		List<Integer> exams = new ArrayList<>(modify.timeslots.remove(slot));
-		Collections.shuffle(exams);
-		modify.timeslots.add(slot, new HashSet<>());
-		modify.acceptableExamsPerTimeslot.get(slot).addAll(exams);
-		for(int exam : exams) {
-			if(exam == 0)
-				continue;
-			minp = Integer.MAX_VALUE;	//we consider slots with minimum contribution
-			for(int i = 1; i < modify.acceptableExamsPerTimeslot.size(); i++) {
-				if(modify.acceptableExamsPerTimeslot.get(i).contains(exam) && modify.penaltyPerSlot[i] <= minp) {	//if a slot can accept the exam and has lowest contribution
-					if(modify.penaltyPerSlot[i] < minp) {		//new lowest contribution
-						minp = modify.penaltyPerSlot[i];
-						possibleSlots.clear();
-					}
-					possibleSlots.add(i);
-				}
-			}
-			newSlot = possibleSlots.get(rng.nextInt(possibleSlots.size()));		//randomly select one of available slots with lowest penalty
-			modify.assignment.put(exam, newSlot);
-			modify.timeslots.get(newSlot).add(exam);
-			//System.out.println("Exam " + exam + " moved to slot " + newSlot);
-			modify.updateFitness(exam, slot, newSlot, instance.getConflictMatrix());
-			modify.updateAcceptabilities(exam, slot, newSlot, instance.getConflictMatrix());
-		}
-		//System.out.println("Done!");
-		modify.individualId = newId();
-		return modify;
-	}
-
-	// Create a new Individual, copy of the first (beware of references)
-	private Individual(Individual toCopy) {
-		this.fitness = toCopy.fitness;			// float
-		this.individualId = toCopy.individualId;	// int
-		this.instance = toCopy.instance;			// immutable Instance
-		this.assignment = new HashMap<Integer, Integer>(toCopy.assignment);	// mutable Map
-		this.penaltyPerSlot = toCopy.penaltyPerSlot;		// mutable List
-
-		this.acceptableExamsPerTimeslot = new ArrayList<Set<Integer>>();
-		this.timeslots = new ArrayList<Set<Integer>>();
-		List<Set<Integer>> ts = toCopy.timeslots;
-		List<Set<Integer>> acc = toCopy.acceptableExamsPerTimeslot;
-		for (int i=0; i<ts.size(); i++) {
-			this.acceptableExamsPerTimeslot.add(new HashSet<Integer>(acc.get(i)));
-			this.timeslots.add(new HashSet<Integer>(ts.get(i)));
-		}
-	}
-
-	// Wrapper for the private constructor above. Useful to preserve the previous solution, in case some operations fail.
-	public Individual clone() {
-		return new Individual(this);
-	}
-	
-	// debug function to test integrity	
-	public boolean testIntegrity() {	
-		if (instance.getNumberOfExams() != assignment.keySet().size())	// right # exams?	
-			return false;	
-		for (Integer exam : assignment.keySet()) {	// is each exam in its timeslot? 	
-			Integer ts = assignment.get(exam);	
-			if (!timeslots.get(ts).contains(exam)) {	
-				//System.out.println("Timeslot " + ts + " should contain exam " + exam);	
-				return false;	
-			}	
-		}	
-		for (int slot = 1; slot<timeslots.size(); slot++)	// are there extra exams in the timeslot?	
-			for (Integer exam : timeslots.get(slot)) {	
-				if (assignment.get(exam) != slot) {	
-					//System.out.println("Exam " + exam + " is somehow in timeslot ("+ slot + ") but should be in (" + assignment.get(exam));	
-					return false;	
-				}	
-			}	
-		this.acceptableExamsPerTimeslot = this.computeAcceptabilitiesPerTimeslot();	
-		List<Integer> counts = new ArrayList<Integer>();	
-		acceptableExamsPerTimeslot.stream().map(set -> set.size()).forEach(i -> counts.add(i));	
-		//System.out.println("# acceptables: " + counts);	
-		return true;	
-	}
-
-	// Extract the chosen timeslots from the individual and return them (used in crossover). Place all the removed ones in timeslot 0.
-	private Map<Integer, Set<Integer>> xoverExtract(Set<Integer> electedSlots) {
-		Map<Integer, Set<Integer>> ret = new HashMap<>();
-		electedSlots.forEach(slot -> {			// For each timeslot, change all the exam assignments to timeslot 0 (ausiliary). These will be reinserted later
-			Set<Integer> removed = timeslots.set(slot.intValue(), new HashSet<Integer>());
-			for (Integer ex : removed)
-				assignment.replace(ex, 0);
-			timeslots.get(0).addAll(removed);
-			ret.put(slot, removed);
-		});
-		return ret;
-	}
-
-	// Remove those exams that would become duplicates in the new solution (used in crossover). Assignments will be replaced in the next step.
-	private void xoverDuplicates(Map<Integer, Set<Integer>> incoming) {
-		for (Integer slot : incoming.keySet())
-			for (Integer exam : incoming.get(slot)) {	// For all the exams in the incoming timeslot, change their assignment and remove them from their current timeslot
-				Integer pos = this.assignment.get(exam);
-				this.timeslots.get(pos).remove(exam);		// Note that this also removes the exams that have been placed in timeslot 0 in the previous step
-			}
-	}
-
-	// Insert the timeslots from the other solution
-	private void xoverInsertOtherTimeslots(Map<Integer, Set<Integer>> incoming) {
-		for (Integer slot : incoming.keySet()) {
-			for (Integer exam : incoming.get(slot)) {
-				//System.out.println("Exam " + exam + " placed in slot " + slot);
-				this.assignment.replace(exam, slot);
-			}
-			this.timeslots.set(slot, incoming.get(slot));
-		}
-		//System.out.println("");
-	}
-
-	// Crossover
-	/* For each timeslot: 		extract the corresponding sets of exams from timeslots and remove all the 'exported' exams (--> xoverExtract() )
-	 * 							remove the exams that are in common with the imported timeslot i.e. duplicates (--> xoverDuplicates() )
-	 * 							insert each imported timeslot (--> xoverInsertOtherTimeslots() )
-	 * 							reinsert the missing elements and throw an exception in case (--> xoverReinsertMissingExams() )
-	 */
-	public List<Individual> crossover(Individual parent2, float percentage){
-		List<Individual> ret = new ArrayList<>();
-		Individual p1, p2;	// p1 and p2 will be modified
-		this.computePenaltyPerSlot(); parent2.computePenaltyPerSlot();
-
-		// Choose the timeslots to use for crossover probabilistically, based on penalty (on both sides): maybe moving a timeslot to the other solution improves it
-		Set<Integer> tabuSlots = new HashSet<>();
-		int nIterations = 0, slot;
-		int nSlots = (int)(percentage * instance.getNumberOfSlots()), nUsed = (int)Arrays.stream(this.penaltyPerSlot).filter(x -> x!=0).count();
-		nSlots = (nSlots < 1? 1 : nSlots);
-		nSlots = (nSlots > nUsed? nUsed : nSlots);
-		int[] combinedP = new int[this.penaltyPerSlot.length];
-		for (int i=1; i<combinedP.length; i++)
-			combinedP[i] = (this.penaltyPerSlot[i] + parent2.penaltyPerSlot[i]);
-		
-		while (nIterations < MAX_CROSSOVER_TRIES && instance.getNumberOfSlots()-tabuSlots.size() > nSlots) {
-			// Choose the timeslots to use for crossover probabilistically, based on penalty (on both sides): maybe moving a timeslot to the other solution improves it
-			Set<Integer> electedSlots = new HashSet<>();
-			while (electedSlots.size() < nSlots) {
-				slot = randomSlotByProbability(combinedP);
-				if (!tabuSlots.contains(slot))
-					electedSlots.add(slot);
-			}	
-			//System.out.println("\nStarting crossover on slots " + electedSlots + "...");
-			//if (!testIntegrity())	
-				//System.out.println("INTEGRITY ERROR BEFORE CROSSOVER!");
-
-			p1 = this.clone(); p2 = parent2.clone();
-			
-			// Extract the chosen timeslots, also marking all the removing as exams as 'missing' (i.e. assigned to -1)
-			Map<Integer, Set<Integer>> extracted1 = p1.xoverExtract(electedSlots), extracted2 = p2.xoverExtract(electedSlots);
-			// Prepare assignment and timeslots so that no duplicates will be formed by inserting the new assignments
-			p1.xoverDuplicates(extracted2); p2.xoverDuplicates(extracted1);
-			// Insert the timeslots coming from the other solution
-			p1.xoverInsertOtherTimeslots(extracted2); p2.xoverInsertOtherTimeslots(extracted1);
-			// Try reinserting missing elements from p1. If it fails, the timeslot it came for is difficult to change
-			try {
-				p1.xoverReinsertMissingExams(p1.timeslots.get(0));
-				p1.timeslots.get(0).clear();
-				p1.individualId=newId();
-				p1.fitness = 1 / p1.computePenalty(instance.getConflictMatrix(), instance.getNumberOfStudents());
-			}
-			catch (CrossoverInsertionFailedException e) {
-				for(int exam : e.getFailedReinsertedExam())
-					tabuSlots.add(this.assignment.get(exam));
-				nSlots = (nSlots-1 < 1? 1 : nSlots-1);
-				nIterations++;
-				continue;
-			}
-			// Try reinserting missing elements from p2. If it fails, the timeslot it came for is difficult to change
-			try {
-				p2.xoverReinsertMissingExams(p2.timeslots.get(0));
-				p2.timeslots.get(0).clear();
-				p2.individualId=newId();
-				p2.fitness = 1 / p2.computePenalty(instance.getConflictMatrix(), instance.getNumberOfStudents());
-			}
-			catch (CrossoverInsertionFailedException e) {
-				for(int exam : e.getFailedReinsertedExam())
-					tabuSlots.add(parent2.assignment.get(exam));
-				nSlots = (nSlots-1 < 1? 1 : nSlots-1);
-				nIterations++;
-				continue;
-			}
-			// I am here if everything else above succeeded, so I have two feasible children.
-			ret.add(p1); ret.add(p2);
-			return ret;
-		}
-		// I am here if something went wrong, so I return copies of the parents
-		Individual A = this.clone();
-		Individual B = parent2.clone();
-		A.individualId=newId();
-		B.individualId=newId();
-		ret.add(A);	// "this" is parent 1
-		ret.add(B);
-
-		return ret;
-	}
-
-	// Insert the missing exams among the acceptable timeslots following an hardest-first policy like in the individual constructor.
-	// Throws an exception if at least an exam can't be placed anywhere
-	private void xoverReinsertMissingExams(Set<Integer> missingExams) throws CrossoverInsertionFailedException{
-		Map<Integer, List<Integer>> possible = new HashMap<>(), numPossible = new TreeMap<>();
-		this.acceptableExamsPerTimeslot = this.computeAcceptabilitiesPerTimeslot();
-		//System.out.println("Try to place exams " + missingExams + "...");
-		
-		for(int exam : missingExams)
-			possible.put(exam, new ArrayList<>());
-		for(int slot = 1; slot < this.acceptableExamsPerTimeslot.size(); slot++)	//inizialization, maps an exam to its possible slots
-			for(int exam : missingExams)
-				if(this.acceptableExamsPerTimeslot.get(slot).contains(exam))
-					possible.get(exam).add(slot);
-				
-		int size, nfails = 0;
-		List<Integer> failed = new ArrayList<>();
-		for(int exam : missingExams) {		//inizialization, maps a slot to the number of slot that can be placed there
-			size = possible.get(exam).size();
-			if(size <= 0) {
-				//System.out.println("No possible slot for exam " + exam + ", exit!");
-				failed.add(exam);
-				nfails ++;	
-				continue;	
-			}
-			if(!numPossible.containsKey(size))
-				numPossible.put(size, new ArrayList<>());
-			numPossible.get(size).add(exam);
-		}
-		if (nfails > 0)	{	
-			//System.out.println("Total not placeable exams: " + nfails);
-			throw new CrossoverInsertionFailedException(failed);
-		}
-		
-		Integer exam, first, slot;
-		Integer[] conflicts;
-		while(!possible.isEmpty()) {
-			first = numPossible.keySet().iterator().next();
-			exam = numPossible.get(first).get(rng.nextInt(numPossible.get(first).size()));	//randomly selects one of the exam that can be placed in less slots
-			conflicts = instance.getConflictMatrix()[exam];
-			if(possible.get(exam).size() <= 0) {
-				//System.out.println("No possible slot for exam " + exam + ", exit!");
-				throw new CrossoverInsertionFailedException(exam);
-			}
-			slot = possible.get(exam).get(rng.nextInt(possible.get(exam).size()));	//get one of possible timeslots
-			this.assignment.put(exam, slot);
-			this.timeslots.get(slot).add(exam);
-			this.updateAcceptabilities(exam, 0, slot, instance.getConflictMatrix());
-			//System.out.println("Exam " + exam + " placed in slot " + slot);
-			possible.remove(exam);		//exam is assigned, is removed
-
-			for(int i = 1; i < conflicts.length; i++) {		//update possible slots based on conflicts
-				if(conflicts[i] != 0 && possible.containsKey(i))
-					possible.get(i).remove(slot);
-			}
-
-			numPossible.clear();		//update number of possible slots
-			for(int i : possible.keySet()) {
-				if(!numPossible.containsKey(possible.get(i).size()))
-					numPossible.put(possible.get(i).size(), new ArrayList<>());
-				numPossible.get(possible.get(i).size()).add(i);
-			}
-		}
-	}
-	
-	//Method called from Population at hybridization step
-	public Individual hybridize() {
-		//TODO: First approach: first improvement
-		//map<int,int> assignment exam,slot
-		return new Individual(this);
-	}
-
-	public Map<Integer, Integer> getAssignment() {
-		return assignment;
-	}
-
-	public float getPenalty() {
-		return ((float) 1)/fitness;
-	}
-	
-	public float getFitness(float worstPenalty) {
-		float thisPenalty = 1/fitness;
-		return (float) Math.pow(2, (worstPenalty - thisPenalty)/(0.0025*worstPenalty) );
-	}
-
-	public List<Set<Integer>> getTimeslots() {
-		return timeslots;
-	}
-
-	public List<Set<Integer>> getAcceptableExamsPerTimeslot() {
-		return acceptableExamsPerTimeslot;
-	}
-
-	public int getId() {
-		return individualId;
-	}
-	
-	public int newId() {
-		return individualCounter++;
-	}
-
-	public boolean isFeasible() {
-		return this.checkFeasibility(assignment, instance.getConflictMatrix());
-	}
-
-}
+package pack;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class Individual {
+	//private static final int MAX_ITER = 12;
+	//private static final int SEED = 42;
+	private static final int MAX_CROSSOVER_TRIES = 3;
+
+	private Instance instance;
+	private int words;					// number of longs needed for a bitset over exam ids
+	private int nSlots;					// timeslots are numbered 1..nSlots
+	private int[] assignment;			// exam -> timeslot, 0 while an exam is parked in the auxiliary timeslot
+	private long[] timeslots;			// one bitset of exams per timeslot, row i at [i*words, (i+1)*words). BEWARE!! Row 0 holds the unassigned exams
+	private long[] acceptables;			// one bitset per timeslot of the exams that can be moved there, kept up-to-date as mutations and crossovers happen
+	private int[] slotConflicts;		// at position exam*(nSlots+1)+slot number of students of exam in conflict with the exams in slot
+	private int[] moveCosts;			// at position exam*(nSlots+1)+slot penalty (times number of students) the exam would cause if placed in slot
+	private int[] slotPairs;			// at position slot1*(nSlots+1)+slot2 number of students in conflict between the exams of the two slots
+	private long penalty;				// total penalty times number of students, i.e. before the division in the objective function
+
+	private static AtomicInteger individualCounter = new AtomicInteger();	// shared by all the threads generating individuals
+	private int individualId;
+
+	private static boolean contains(long[] bits, int row, int words, int exam) {
+		return (bits[row*words + (exam >>> 6)] & (1L << exam)) != 0;
+	}
+
+	private static void add(long[] bits, int row, int words, int exam) {
+		bits[row*words + (exam >>> 6)] |= 1L << exam;
+	}
+
+	private static void remove(long[] bits, int row, int words, int exam) {
+		bits[row*words + (exam >>> 6)] &= ~(1L << exam);
+	}
+
+	// Exams of a bitset row, in increasing order
+	private static int[] members(long[] bits, int row, int words) {
+		int n = 0;
+		for (int w = row*words; w < (row+1)*words; w++)
+			n += Long.bitCount(bits[w]);
+		int[] ret = new int[n];
+		n = 0;
+		for (int w = 0; w < words; w++)
+			for (long word = bits[row*words + w]; word != 0; word &= word - 1)
+				ret[n++] = (w << 6) + Long.numberOfTrailingZeros(word);
+		return ret;
+	}
+
+	// Returns true if exam is in conflict with another one scheduled in slot
+	public Boolean hasConflict(Integer slot, Integer exam, int[] assignment) {
+		int[] start = instance.getNeighbourStart(), neighbours = instance.getNeighbours();
+		for(int k = start[exam]; k < start[exam+1]; k++)
+			if(assignment[neighbours[k]] == slot)
+				return true;
+		return false;
+	}
+
+	public boolean checkFeasibility(int[] assignment) {
+		boolean flag = true;
+		int[] start = instance.getNeighbourStart(), neighbours = instance.getNeighbours();
+		for(int exam : instance.getExamList()) {
+			for(int k = start[exam]; k < start[exam+1]; k++)
+				if(assignment[exam] == assignment[neighbours[k]]) {
+					//System.out.println("Conflicting exams " + exam + " and " + neighbours[k] + " are both scheduled in slot " + assignment[exam]);
+					flag = false;
+				}
+		}
+		return flag;
+	}
+
+	public float computePenalty() {
+		float p = 0;
+		int slot1, distance;
+		int[] start = instance.getNeighbourStart(), neighbours = instance.getNeighbours(), weights = instance.getNeighbourWeights();
+		for(int exam1 = 1; exam1 <= instance.getMaxExam(); exam1++) {
+			slot1 = this.assignment[exam1];
+			for(int k = start[exam1]; k < start[exam1+1]; k++) {
+				if(neighbours[k] <= exam1)		// each pair is counted once
+					continue;
+				distance = Math.abs(slot1 - this.assignment[neighbours[k]]);
+				p += Instance.proximity(distance)*weights[k];
+			}
+		}
+		return p/instance.getNumberOfStudents();
+	}
+
+	// Register (sign = 1) or unregister (sign = -1) exam, placed in slot, in the table rows of its neighbours.
+	// Only the neighbours of the moved exam are affected, and only within MAXDISTANCE slots from where it is.
+	private void updateTables(int exam, int slot, int sign) {
+		int cols = nSlots + 1, row, distance;
+		int d = Instance.MAXDISTANCE, from = (slot - d < 1)? 1 : slot-d, to = (slot + d > nSlots)? nSlots : slot+d;
+		int[] start = instance.getNeighbourStart(), neighbours = instance.getNeighbours(), weights = instance.getNeighbourWeights();
+		for (int k = start[exam]; k < start[exam+1]; k++) {
+			int other = neighbours[k], students = sign*weights[k];
+			row = other*cols;
+			slotConflicts[row + slot] += students;
+			if (slotConflicts[row + slot] == 0 && assignment[other] != slot)	// last conflict with this slot removed
+				add(acceptables, slot, words, other);
+			else
+				remove(acceptables, slot, words, other);
+			for (int i = from; i <= to; i++) {
+				distance = Math.abs(i - slot);
+				if (distance > 0)
+					moveCosts[row + i] += Instance.proximity(distance)*students;
+			}
+		}
+	}
+
+	// Place an unassigned exam (i.e. in timeslot 0) in slot
+	private void assign(int exam, int slot) {
+		remove(timeslots, 0, words, exam);
+		assignment[exam] = slot;
+		add(timeslots, slot, words, exam);
+		remove(acceptables, slot, words, exam);
+		penalty += moveCosts[exam*(nSlots+1) + slot];
+		updateTables(exam, slot, 1);
+		updateSlotPairs(exam, slot, 1);
+	}
+
+	// Take an exam out of its timeslot and park it in timeslot 0
+	private void unassign(int exam) {
+		int slot = assignment[exam];
+		remove(timeslots, slot, words, exam);
+		assignment[exam] = 0;
+		add(timeslots, 0, words, exam);
+		penalty -= moveCosts[exam*(nSlots+1) + slot];
+		updateTables(exam, slot, -1);
+		updateSlotPairs(exam, slot, -1);
+		if (slotConflicts[exam*(nSlots+1) + slot] == 0)
+			add(acceptables, slot, words, exam);	// the given exam is also acceptable in the timeslot where it comes from
+	}
+
+	// The conflicts of exam with each slot move to (sign = 1) or away from (sign = -1) its slot
+	private void updateSlotPairs(int exam, int slot, int sign) {
+		int cols = nSlots + 1, row = exam*cols, students;
+		for (int other = 1; other <= nSlots; other++) {
+			students = sign*slotConflicts[row + other];
+			if (students != 0) {
+				slotPairs[slot*cols + other] += students;
+				if (other != slot)
+					slotPairs[other*cols + slot] += students;
+			}
+		}
+	}
+
+	// Recompute all the tables (and the penalty) from the current assignment. Exams in timeslot 0 are ignored.
+	private void rebuildTables() {
+		int cols = nSlots + 1;
+		slotConflicts = new int[(instance.getMaxExam() + 1) * cols];
+		moveCosts = new int[(instance.getMaxExam() + 1) * cols];
+		acceptables = new long[timeslots.length];	// row 0 is left empty, as timeslot 0 is not used
+		for (int exam : instance.getExamList())
+			for (int slot = 1; slot <= nSlots; slot++)
+				if (assignment[exam] != slot)
+					add(acceptables, slot, words, exam);
+		for (int exam : instance.getExamList())
+			if (assignment[exam] > 0)
+				updateTables(exam, assignment[exam], 1);
+		penalty = 0;
+		for (int exam : instance.getExamList())
+			if (assignment[exam] > 0)
+				penalty += moveCosts[exam*cols + assignment[exam]];
+		penalty /= 2;		// each conflicting pair has been counted from both sides
+		slotPairs = new int[cols * cols];
+		for (int exam : instance.getExamList())
+			if (assignment[exam] > 0)
+				for (int slot = 1; slot <= nSlots; slot++)
+					slotPairs[assignment[exam]*cols + slot] += slotConflicts[exam*cols + slot];
+	}
+
+	// Penalty (times number of students) of the timetable obtained placing the exams of slot order[i] in slot i, for i = 1..nSlots.
+	// Only the slot pairs are visited, so any permutation of the timeslots is evaluated in O(nSlots).
+	public long getSlotOrderPenalty(int[] order) {
+		int cols = nSlots + 1;
+		long p = 0;
+		for (int i = 1; i <= nSlots; i++)
+			for (int j = i + 1; j <= i + Instance.MAXDISTANCE && j <= nSlots; j++)
+				p += Instance.proximity(j - i)*slotPairs[order[i]*cols + order[j]];
+		return p;
+	}
+
+	// Change of penalty (times number of students) if the contents of slot1 and slot2 were swapped. Only the pairs involving them change.
+	public long getSlotSwapDelta(int slot1, int slot2) {
+		int cols = nSlots + 1, d1, d2;
+		long delta = 0;
+		for (int other = 1; other <= nSlots; other++) {
+			if (other == slot1 || other == slot2)		// the distance between slot1 and slot2 does not change
+				continue;
+			d1 = Math.abs(slot1 - other);
+			d2 = Math.abs(slot2 - other);
+			delta += (long) (Instance.proximity(d2) - Instance.proximity(d1))*(slotPairs[slot1*cols + other] - slotPairs[slot2*cols + other]);
+		}
+		return delta;
+	}
+
+	// Copy of the matrix of conflicting students between slots, at position slot1*(nSlots+1)+slot2
+	public int[] getSlotPairConflicts() {
+		return slotPairs.clone();
+	}
+
+	// Move the whole content of each slot s to slot newSlotOf[s] (index 0 is ignored). Feasibility is unchanged, and the tables
+	// are permuted instead of being rebuilt from the conflicts of every exam.
+	public void applySlotPermutation(int[] newSlotOf) {
+		int cols = nSlots + 1, row;
+		long[] oldTimeslots = timeslots.clone(), oldAcceptables = acceptables.clone();
+		int[] oldPairs = slotPairs.clone(), conflicts = new int[cols];
+		for (int slot = 1; slot <= nSlots; slot++) {
+			System.arraycopy(oldTimeslots, slot*words, timeslots, newSlotOf[slot]*words, words);
+			System.arraycopy(oldAcceptables, slot*words, acceptables, newSlotOf[slot]*words, words);
+			for (int other = 1; other <= nSlots; other++)
+				slotPairs[newSlotOf[slot]*cols + newSlotOf[other]] = oldPairs[slot*cols + other];
+		}
+		for (int exam : instance.getExamList()) {
+			if (assignment[exam] > 0)
+				assignment[exam] = newSlotOf[assignment[exam]];
+			row = exam*cols;
+			for (int slot = 1; slot <= nSlots; slot++)
+				conflicts[newSlotOf[slot]] = slotConflicts[row + slot];
+			System.arraycopy(conflicts, 1, slotConflicts, row + 1, nSlots);
+			// Move costs depend on the distances, so they are recomputed from the permuted conflicts
+			for (int slot = 1; slot <= nSlots; slot++) {
+				int cost = 0;
+				for (int other = Math.max(1, slot - Instance.MAXDISTANCE); other <= slot + Instance.MAXDISTANCE && other <= nSlots; other++)
+					if (other != slot)
+						cost += Instance.proximity(Math.abs(other - slot))*conflicts[other];
+				moveCosts[row + slot] = cost;
+			}
+		}
+		int[] order = new int[cols];
+		for (int slot = 1; slot <= nSlots; slot++)
+			order[slot] = slot;
+		penalty = getSlotOrderPenalty(order);
+	}
+
+	// Generation of an individual, greedy
+	public Individual(Instance instance) {
+		this.individualId = this.newId();
+		// METHOD 1: 	exams ordered for total number of conflicting students, for each exam randomly select a slot and if there is no conflict it
+		// 				is assigned. if conflict, randomly try with the other slots, if no one is ok restart from the beginning.
+		// Random r = new Random(SEED);
+		/*Random r = new Random();
+		Integer slot, counter;
+		List<Integer> tried;
+		Boolean end = false;
+		while(!end) {
+			end = true;
+			this.assignment = new TreeMap<>();
+			for(int exam : instance.getConflictingStudents().keySet()) {
+				counter = 0;
+				tried = new ArrayList<>();
+				do {
+					do
+						slot = r.ints(1, 1, instance.getNumberOfSlots() + 1).findFirst().getAsInt();
+					while(tried.contains(slot));	//try once for each slot
+					tried.add(slot);
+				} while(hasConflict(slot, exam, this.assignment) && counter++ < instance.getNumberOfSlots()-1);
+				// try until a non conflicting slot is found, after MAX_ITER iterations restart generation
+
+				if(counter >= instance.getNumberOfSlots()-1) {
+					end = false;
+					break;
+				} else
+					this.assignment.put(exam, slot);
+			}
+		}*/
+
+		// METHOD 2:	based on number of possible slots per exam (saturation degree). at each iteration randomly selects one of the exams with the lowest
+		//				number of possible slots, one of its available slots, assigns it and updates possible slots for conflicting exams. in case
+		//				an exam can't be placed anywhere restart.
+		this.instance = instance;
+		this.nSlots = instance.getNumberOfSlots();
+		this.words = (instance.getMaxExam() >>> 6) + 1;
+		this.assignment = new int[instance.getMaxExam() + 1];
+		this.timeslots = new long[(instance.getNumberOfSlots() + 1) * words];
+		SplittableRandom rng = Rng.current();
+		int maxExam = instance.getMaxExam(), slotWords = (nSlots >>> 6) + 1;
+		int[] exams = new int[maxExam];
+		long[] possible = new long[(maxExam + 1) * slotWords];		//maps exam to bitset of its feasible timeslots
+		for(int i = 1; i <= maxExam; i++)
+			exams[i-1] = i;
+		do {	//if an exam can't be placed anywhere start again
+			if(Thread.currentThread().isInterrupted())	//the construction was cancelled, e.g. enough individuals were built in the meantime
+				throw new CancellationException();
+			Arrays.fill(assignment, 0);
+			Arrays.fill(timeslots, 0);
+			for(int exam = 1; exam <= maxExam; exam++)
+				for(int slot = 1; slot <= nSlots; slot++)
+					add(possible, exam, slotWords, slot);
+		} while(saturationDegreeAssignment(exams, possible, slotWords, false, rng) != 0);
+
+		// Compute penalty, acceptabilities and move costs
+		rebuildTables();
+	}
+
+	public void printIndividual() {
+		//System.out.println(this.assignment);
+	}
+
+	public void printIndividual(String fileName) throws IOException {
+		FileWriter fw = new FileWriter(fileName);
+		PrintWriter pw = new PrintWriter(fw);
+		for(int exam : instance.getExamList()) {
+			//System.out.println(exam + " " + this.assignment[exam]);
+			pw.println(exam + " " + this.assignment[exam]);
+		}
+		pw.close();
+		//fw.close();
+	}
+
+	// Move an exam from its current assignment to a destination timeslot (use in conjunction with acceptabilities
+	public void moveExam(Integer exam, Integer destTimeslot) {
+		//System.out.println("Moving exam " + exam + " in slot " + destTimeslot);
+		// Acceptabilities, move costs and penalty are updated along, to avoid recomputing them entirely
+		unassign(exam);
+		assign(exam, destTimeslot);
+	}
+
+	// Change of penalty (times number of students) if exam was moved to slot, read from the move cost table
+	public int getMoveDelta(int exam, int slot) {
+		int row = exam*(nSlots+1);
+		return moveCosts[row + slot] - moveCosts[row + assignment[exam]];
+	}
+
+	// Penalty (times number of students) of the pairs of exam with its neighbours, i.e. what it costs where it is now
+	public int getExamPenalty(int exam) {
+		return moveCosts[exam*(nSlots+1) + assignment[exam]];
+	}
+
+	// Number of students of exam in conflict with the exams currently in slot: the move is feasible only if this is 0
+	public int getSlotConflicts(int exam, int slot) {
+		return slotConflicts[exam*(nSlots+1) + slot];
+	}
+
+	// Move a randomly chosen exam to another timeslot, maintaining feasibility.
+	public Individual mutate() {
+		//System.out.println("\nStarting exam mutation...");
+		Individual toModify = this.clone();
+		toModify.mutateInPlace(Rng.current());
+		toModify.individualId = newId();		// if a mutation happened the ID is different
+		return toModify;
+	}
+
+	private void mutateInPlace(SplittableRandom rng) {
+		// Pick a timeslot in a probabilistic manner based on penalty
+		int slot = randomSlotByProbability(computePenaltyPerSlot());
+
+		// Pick an acceptable exam for that timeslot in a random way (try to avoid local minima)
+		int[] acceptables = members(this.acceptables, slot, words);
+		if (acceptables.length == 0) 	// no mutations could be performed
+			return;
+		int exam = acceptables[rng.nextInt(acceptables.length)];
+
+		// Move the chosen exam in the new timeslot
+		moveExam(exam, slot);
+	}
+
+	// Diversification: disruptions desrupt() and mutations mutate() applied to a single copy of this individual
+	public Individual perturb(int disruptions, int mutations) {
+		SplittableRandom rng = Rng.current();
+		Individual modify = this.clone();
+		for (int i = 0; i < disruptions; i++)
+			modify.desruptInPlace(rng);
+		for (int i = 0; i < mutations; i++)
+			modify.mutateInPlace(rng);
+		modify.individualId = newId();
+		return modify;
+	}
+
+	// Kempe chain move of a random exam to a random other timeslot: unlike mutate() it does not need the exam to be acceptable there.
+	public Individual kempeMutate() {
+		Individual toModify = this.clone();
+		SplittableRandom rng = Rng.current();
+		toModify.individualId = newId();
+		if (nSlots < 2)
+			return toModify;
+		int exam = 1 + rng.nextInt(instance.getMaxExam());
+		int from = assignment[exam], to = 1 + rng.nextInt(nSlots - 1);
+		if (to >= from)
+			to++;
+		toModify.applyKempeChain(toModify.kempeChain(exam, to), from, to);
+		return toModify;
+	}
+
+	// Kempe chain of exam towards slot: the exams connected to it by conflicts, alternating between its slot and the given one.
+	// Swapping the slots of the whole chain keeps the solution feasible: every conflict of a chain exam in the two slots is in the chain.
+	public int[] kempeChain(int exam, int slot) {
+		int from = assignment[exam];
+		int[] start = instance.getNeighbourStart(), neighbours = instance.getNeighbours();
+		int[] chain = new int[instance.getMaxExam()];
+		boolean[] inChain = new boolean[instance.getMaxExam() + 1];
+		int size = 0;
+		chain[size++] = exam;
+		inChain[exam] = true;
+		for (int i = 0; i < size; i++) {		// breadth first visit, chain is also the queue
+			int e = chain[i], other = (assignment[e] == from)? slot : from;
+			for (int k = start[e]; k < start[e+1]; k++)
+				if (assignment[neighbours[k]] == other && !inChain[neighbours[k]]) {
+					inChain[neighbours[k]] = true;
+					chain[size++] = neighbours[k];
+				}
+		}
+		return Arrays.copyOf(chain, size);
+	}
+
+	// Change of penalty (times number of students) if the exams of chain exchanged slot1 and slot2. The move costs price each exam as if
+	// the others stayed, which counts every conflict inside the chain twice with weight -proximity(|slot1-slot2|), while its distance does
+	// not change: those pairs are added back.
+	public long getKempeDelta(int[] chain, int slot1, int slot2) {
+		int[] start = instance.getNeighbourStart(), neighbours = instance.getNeighbours(), weights = instance.getNeighbourWeights();
+		long delta = 0, internal = 0;
+		for (int exam : chain) {
+			int other = (assignment[exam] == slot1)? slot2 : slot1;
+			delta += getMoveDelta(exam, other);
+			if (assignment[exam] == slot1)
+				for (int k = start[exam]; k < start[exam+1]; k++)
+					if (assignment[neighbours[k]] == slot2)		// in the chain, by construction
+						internal += weights[k];
+		}
+		return delta + 2*internal*Instance.proximity(Math.abs(slot1 - slot2));
+	}
+
+	// Exchange slot1 and slot2 for the exams of chain. The chain is taken out first, so no conflict is ever created
+	public void applyKempeChain(int[] chain, int slot1, int slot2) {
+		int[] from = new int[chain.length];
+		for (int i = 0; i < chain.length; i++) {
+			from[i] = assignment[chain[i]];
+			unassign(chain[i]);
+		}
+		for (int i = 0; i < chain.length; i++)
+			assign(chain[i], (from[i] == slot1)? slot2 : slot1);
+	}
+
+	// Hardest-first placement of the given exams, used by the constructor and by the crossover. Exams not yet placed are kept in a bucket
+	// queue ordered by number of possible slots: queue[bucketStart[k]..bucketStart[k+1]) holds the exams with k possible slots, and
+	// queue[0..bucketStart[0]) the placed ones. Losing a possible slot moves an exam to the previous bucket with one swap.
+	// possible holds a bitset of slots, slotWords long, for each exam. With tables the exams are assigned keeping acceptabilities, move costs
+	// and penalty up to date, otherwise only assignment and timeslots are written.
+	// Returns 0, or an exam left without possible slots.
+	private int saturationDegreeAssignment(int[] exams, long[] possible, int slotWords, boolean tables, SplittableRandom rng) {
+		int[] start = instance.getNeighbourStart(), neighbours = instance.getNeighbours();
+		int[] numPossible = new int[instance.getMaxExam() + 1], position = new int[instance.getMaxExam() + 1];
+		int[] queue = new int[exams.length], bucketStart = new int[nSlots + 2];
+		Arrays.fill(position, -1);
+		for (int exam : exams) {		//counting sort of the exams by number of possible slots
+			for (int w = 0; w < slotWords; w++)
+				numPossible[exam] += Long.bitCount(possible[exam*slotWords + w]);
+			bucketStart[numPossible[exam] + 1]++;
+		}
+		for (int k = 1; k <= nSlots + 1; k++)
+			bucketStart[k] += bucketStart[k - 1];
+		int[] next = Arrays.copyOf(bucketStart, nSlots + 1);
+		for (int exam : exams) {
+			position[exam] = next[numPossible[exam]]++;
+			queue[position[exam]] = exam;
+		}
+
+		for (int placed = 0; placed < exams.length; placed++) {
+			int min = 0;
+			while (bucketStart[min] == bucketStart[min + 1])	//first non empty bucket
+				min++;
+			// randomly selects one of the exams that can be placed in less slots, and one of its possible slots
+			int exam = queue[bucketStart[min] + rng.nextInt(bucketStart[min + 1] - bucketStart[min])];
+			if (min == 0)
+				return exam;
+			int slot = nthSlot(possible, exam*slotWords, slotWords, rng.nextInt(numPossible[exam]));
+			if (tables)
+				assign(exam, slot);
+			else {
+				assignment[exam] = slot;
+				add(timeslots, slot, words, exam);
+			}
+			// move exam at the beginning of its bucket, then past the end of the placed exams (the buckets before min are empty)
+			swap(queue, position, position[exam], bucketStart[min]);
+			for (int k = 0; k <= min; k++)
+				bucketStart[k]++;
+
+			for (int k = start[exam]; k < start[exam + 1]; k++) {		//update possible slots based on conflicts
+				int n = neighbours[k];
+				if (position[n] >= bucketStart[0] && contains(possible, n, slotWords, slot)) {
+					remove(possible, n, slotWords, slot);
+					int bucket = numPossible[n]--;
+					swap(queue, position, position[n], bucketStart[bucket]);	//first of its bucket becomes last of the previous one
+					bucketStart[bucket]++;
+				}
+			}
+		}
+		return 0;
+	}
+
+	private static void swap(int[] queue, int[] position, int i, int j) {
+		int a = queue[i], b = queue[j];
+		queue[i] = b;
+		queue[j] = a;
+		position[b] = i;
+		position[a] = j;
+	}
+
+	// The n-th (from 0) slot set in the bitset row starting at offset
+	private static int nthSlot(long[] bits, int offset, int words, int n) {
+		for (int w = 0; w < words; w++) {
+			long word = bits[offset + w];
+			int count = Long.bitCount(word);
+			if (n < count) {
+				for (; n > 0; n--)
+					word &= word - 1;
+				return (w << 6) + Long.numberOfTrailingZeros(word);
+			}
+			n -= count;
+		}
+		return -1;
+	}
+
+	// Compute penalty caused by each slot: each conflicting pair counts for both its slots, which is what the move cost of its exams holds
+	int[] computePenaltyPerSlot() {
+		int[] penaltyPerSlot = new int[nSlots + 1];
+		for(int exam : instance.getExamList())
+			if (assignment[exam] > 0) 	// timeslot 0 is fictious
+				penaltyPerSlot[assignment[exam]] += moveCosts[exam*(nSlots+1) + assignment[exam]];
+		return penaltyPerSlot;
+	}
+
+	// Pick a random slot probabilistically based on penalty
+	private int randomSlotByProbability(int[] probabilities) {
+		SplittableRandom rng = Rng.current();
+		int tot = Arrays.stream(probabilities).sum(), slot=0;
+		int value = rng.nextInt(tot) - probabilities[slot];
+		while (value >= 0) {
+			slot ++;
+			value -= probabilities[slot];
+		}
+		return slot;
+	}
+
+	// Select two slots in a probabilistic manner and swap them
+	public Individual swapSlots() {
+		Individual modify = this.clone();
+
+		int slot1 = 0, slot2 = 0;
+		int[] penaltyPerSlot = modify.computePenaltyPerSlot();
+		//System.out.println("\nStarting slot swapping...");
+		slot1 = randomSlotByProbability(penaltyPerSlot);
+		slot2 = randomSlotByProbability(penaltyPerSlot);
+
+		if(slot1 == slot2)  {
+			//System.out.println("Slot " + slot1 + " extracted two times, exit");
+			modify.individualId = newId();
+			return modify;
+		}
+
+		//System.out.println("Swapping exams " + slot1 + " and " + slot2 + "...");
+		//update assignments, penalty and acceptabilities
+		int[] newSlotOf = new int[nSlots + 1];
+		for(int i = 1; i <= nSlots; i++)
+			newSlotOf[i] = i;
+		newSlotOf[slot1] = slot2;
+		newSlotOf[slot2] = slot1;
+		modify.applySlotPermutation(newSlotOf);
+
+		//System.out.println("Done!");
+		modify.individualId = newId();
+		return modify;
+	}
+
+	// Reorder the timeslots with the given slot orderer, keeping feasibility. Returns a copy if no better order is found.
+	public Individual reorderSlots(SlotOrderer orderer) {
+		Individual modify = this.clone();
+		int[] newSlotOf = orderer.findOrder(this);
+		if (newSlotOf != null)
+			modify.applySlotPermutation(newSlotOf);
+		modify.individualId = newId();
+		return modify;
+	}
+
+	//empty an expensive timeslot and try to move the exams, TODO: decide if destination is slot that contributes more or less to total penalty
+	public Individual desrupt() {
+		Individual modify = this.clone();
+		modify.desruptInPlace(Rng.current());
+		modify.individualId = newId();
+		return modify;
+	}
+
+	private void desruptInPlace(SplittableRandom rng) {
+		Individual modify = this;
+		//System.out.println("\nStarting slot destruction...");
+		int[] penaltyPerSlot = modify.computePenaltyPerSlot();
+		int slot = 0, minp, newSlot = 0;
+		List<Integer> possibleSlots = new ArrayList<>();
+		slot = randomSlotByProbability(penaltyPerSlot);
+
+		//System.out.println("Slot " + slot + " extracted");
+		int[] exams = members(modify.timeslots, slot, words);
+		for(int i = exams.length - 1; i >= 0; i--) {		// shuffle while taking them out
+			int j = rng.nextInt(i + 1), exam = exams[j];
+			exams[j] = exams[i];
+			exams[i] = exam;
+			modify.unassign(exam);
+		}
+		for(int exam : exams) {
+			minp = Integer.MAX_VALUE;	//we consider slots with minimum contribution
+			for(int i = 1; i <= nSlots; i++) {
+				if(contains(modify.acceptables, i, words, exam) && penaltyPerSlot[i] <= minp) {	//if a slot can accept the exam and has lowest contribution
+					if(penaltyPerSlot[i] < minp) {		//new lowest contribution
+						minp = penaltyPerSlot[i];
+						possibleSlots.clear();
+					}
+					possibleSlots.add(i);
+				}
+			}
+			newSlot = possibleSlots.get(rng.nextInt(possibleSlots.size()));		//randomly select one of available slots with lowest penalty
+			modify.assign(exam, newSlot);
+			//System.out.println("Exam " + exam + " moved to slot " + newSlot);
+		}
+		//System.out.println("Done!");
+	}
+
+	// Create a new Individual, copy of the first: all the state is in flat arrays, so a few array copies suffice
+	private Individual(Individual toCopy) {
+		this.penalty = toCopy.penalty;			// long
+		this.individualId = toCopy.individualId;	// int
+		this.instance = toCopy.instance;			// immutable Instance
+		this.words = toCopy.words;
+		this.nSlots = toCopy.nSlots;
+		this.assignment = toCopy.assignment.clone();
+		this.timeslots = toCopy.timeslots.clone();
+		this.acceptables = toCopy.acceptables.clone();
+		this.slotConflicts = toCopy.slotConflicts.clone();
+		this.moveCosts = toCopy.moveCosts.clone();
+		this.slotPairs = toCopy.slotPairs.clone();
+	}
+
+	// Wrapper for the private constructor above. Useful to preserve the previous solution, in case some operations fail.
+	public Individual clone() {
+		return new Individual(this);
+	}
+
+	// Copy with a new ID, e.g. an individual migrating to another population
+	public Individual duplicate() {
+		Individual copy = new Individual(this);
+		copy.individualId = newId();
+		return copy;
+	}
+
+	// debug function to test integrity
+	public boolean testIntegrity() {
+		for (int exam : instance.getExamList()) {	// is each exam in its timeslot, and only there?
+			for (int slot = 0; slot <= nSlots; slot++)
+				if (contains(timeslots, slot, words, exam) != (assignment[exam] == slot)) {
+					//System.out.println("Exam " + exam + " is somehow in timeslot ("+ slot + ") but should be in (" + assignment[exam]);
+					return false;
+				}
+		}
+		Individual fresh = this.clone();		// are the incrementally updated tables the same as recomputed ones?
+		fresh.rebuildTables();
+		return fresh.penalty == this.penalty && Arrays.equals(fresh.slotConflicts, this.slotConflicts)
+				&& Arrays.equals(fresh.moveCosts, this.moveCosts) && Arrays.equals(fresh.acceptables, this.acceptables)
+				&& Arrays.equals(fresh.slotPairs, this.slotPairs);
+	}
+
+	// Extract the chosen timeslots from the individual and return them (used in crossover). Place all the removed ones in timeslot 0.
+	private Map<Integer, int[]> xoverExtract(Set<Integer> electedSlots) {
+		Map<Integer, int[]> ret = new HashMap<>();
+		electedSlots.forEach(slot -> {			// For each timeslot, change all the exam assignments to timeslot 0 (ausiliary). These will be reinserted later
+			int[] removed = members(timeslots, slot, words);
+			for (int ex : removed) {
+				assignment[ex] = 0;
+				remove(timeslots, slot, words, ex);
+				add(timeslots, 0, words, ex);
+			}
+			ret.put(slot, removed);
+		});
+		return ret;
+	}
+
+	// Remove those exams that would become duplicates in the new solution (used in crossover). Assignments will be replaced in the next step.
+	private void xoverDuplicates(Map<Integer, int[]> incoming) {
+		for (Integer slot : incoming.keySet())
+			for (int exam : incoming.get(slot))	// For all the exams in the incoming timeslot, change their assignment and remove them from their current timeslot
+				remove(this.timeslots, this.assignment[exam], words, exam);		// Note that this also removes the exams that have been placed in timeslot 0 in the previous step
+	}
+
+	// Insert the timeslots from the other solution
+	private void xoverInsertOtherTimeslots(Map<Integer, int[]> incoming) {
+		for (Integer slot : incoming.keySet()) {
+			for (int exam : incoming.get(slot)) {
+				//System.out.println("Exam " + exam + " placed in slot " + slot);
+				this.assignment[exam] = slot;
+				add(this.timeslots, slot, words, exam);
+			}
+		}
+		//System.out.println("");
+	}
+
+	// Crossover
+	/* For each timeslot: 		extract the corresponding sets of exams from timeslots and remove all the 'exported' exams (--> xoverExtract() )
+	 * 							remove the exams that are in common with the imported timeslot i.e. duplicates (--> xoverDuplicates() )
+	 * 							insert each imported timeslot (--> xoverInsertOtherTimeslots() )
+	 * 							reinsert the missing elements and throw an exception in case (--> xoverReinsertMissingExams() )
+	 */
+	public List<Individual> crossover(Individual parent2, float percentage){
+		List<Individual> ret = new ArrayList<>();
+		Individual p1, p2;	// p1 and p2 will be modified
+		int[] penaltyPerSlot1 = this.computePenaltyPerSlot(), penaltyPerSlot2 = parent2.computePenaltyPerSlot();	// parents are only read, they can be shared between threads
+
+		// Choose the timeslots to use for crossover probabilistically, based on penalty (on both sides): maybe moving a timeslot to the other solution improves it
+		Set<Integer> tabuSlots = new HashSet<>();
+		int nIterations = 0, slot;
+		int nSlots = (int)(percentage * instance.getNumberOfSlots()), nUsed = (int)Arrays.stream(penaltyPerSlot1).filter(x -> x!=0).count();
+		nSlots = (nSlots < 1? 1 : nSlots);
+		nSlots = (nSlots > nUsed? nUsed : nSlots);
+		int[] combinedP = new int[penaltyPerSlot1.length];
+		for (int i=1; i<combinedP.length; i++)
+			combinedP[i] = (penaltyPerSlot1[i] + penaltyPerSlot2[i]);
+
+		while (nIterations < MAX_CROSSOVER_TRIES && instance.getNumberOfSlots()-tabuSlots.size() > nSlots) {
+			// Choose the timeslots to use for crossover probabilistically, based on penalty (on both sides): maybe moving a timeslot to the other solution improves it
+			Set<Integer> electedSlots = new HashSet<>();
+			while (electedSlots.size() < nSlots) {
+				slot = randomSlotByProbability(combinedP);
+				if (!tabuSlots.contains(slot))
+					electedSlots.add(slot);
+			}
+			//System.out.println("\nStarting crossover on slots " + electedSlots + "...");
+			//if (!testIntegrity())
+				//System.out.println("INTEGRITY ERROR BEFORE CROSSOVER!");
+
+			p1 = this.clone(); p2 = parent2.clone();
+
+			// Extract the chosen timeslots, also marking all the removing as exams as 'missing' (i.e. assigned to -1)
+			Map<Integer, int[]> extracted1 = p1.xoverExtract(electedSlots), extracted2 = p2.xoverExtract(electedSlots);
+			// Prepare assignment and timeslots so that no duplicates will be formed by inserting the new assignments
+			p1.xoverDuplicates(extracted2); p2.xoverDuplicates(extracted1);
+			// Insert the timeslots coming from the other solution
+			p1.xoverInsertOtherTimeslots(extracted2); p2.xoverInsertOtherTimeslots(extracted1);
+			// Try reinserting missing elements from p1. If it fails, the timeslot it came for is difficult to change
+			try {
+				p1.xoverReinsertMissingExams(members(p1.timeslots, 0, words));
+				p1.individualId=newId();
+			}
+			catch (CrossoverInsertionFailedException e) {
+				for(int exam : e.getFailedReinsertedExam())
+					tabuSlots.add(this.assignment[exam]);
+				nSlots = (nSlots-1 < 1? 1 : nSlots-1);
+				nIterations++;
+				continue;
+			}
+			// Try reinserting missing elements from p2. If it fails, the timeslot it came for is difficult to change
+			try {
+				p2.xoverReinsertMissingExams(members(p2.timeslots, 0, words));
+				p2.individualId=newId();
+			}
+			catch (CrossoverInsertionFailedException e) {
+				for(int exam : e.getFailedReinsertedExam())
+					tabuSlots.add(parent2.assignment[exam]);
+				nSlots = (nSlots-1 < 1? 1 : nSlots-1);
+				nIterations++;
+				continue;
+			}
+			// I am here if everything else above succeeded, so I have two feasible children.
+			ret.add(p1); ret.add(p2);
+			return ret;
+		}
+		// I am here if something went wrong, so I return copies of the parents
+		Individual A = this.clone();
+		Individual B = parent2.clone();
+		A.individualId=newId();
+		B.individualId=newId();
+		ret.add(A);	// "this" is parent 1
+		ret.add(B);
+
+		return ret;
+	}
+
+	// Insert the missing exams among the acceptable timeslots following an hardest-first policy like in the individual constructor.
+	// Throws an exception if at least an exam can't be placed anywhere
+	private void xoverReinsertMissingExams(int[] missingExams) throws CrossoverInsertionFailedException{
+		SplittableRandom rng = Rng.current();
+		int slotWords = (nSlots >>> 6) + 1;
+		long[] possible = new long[(instance.getMaxExam() + 1) * slotWords];		//maps exam to bitset of its possible slots
+		this.rebuildTables();
+		//System.out.println("Try to place exams " + missingExams + "...");
+
+		List<Integer> failed = new ArrayList<>();
+		for(int exam : missingExams) {		//inizialization
+			boolean placeable = false;
+			for(int slot = 1; slot <= nSlots; slot++)
+				if(contains(this.acceptables, slot, words, exam)) {
+					add(possible, exam, slotWords, slot);
+					placeable = true;
+				}
+			if(!placeable) {
+				//System.out.println("No possible slot for exam " + exam + ", exit!");
+				failed.add(exam);
+			}
+		}
+		if (failed.size() > 0)	{
+			//System.out.println("Total not placeable exams: " + failed.size());
+			throw new CrossoverInsertionFailedException(failed);
+		}
+
+		int exam = saturationDegreeAssignment(missingExams, possible, slotWords, true, rng);
+		if(exam != 0) {
+			//System.out.println("No possible slot for exam " + exam + ", exit!");
+			throw new CrossoverInsertionFailedException(exam);
+		}
+	}
+
+	//Method called from Population at hybridization step: local search on a copy of this individual, descending over the moves of single exams
+	//to their acceptable slots, so the result stays feasible. First improvement applies the first move lowering the penalty, best improvement
+	//the best move of the whole neighbourhood. Each move is evaluated in O(1) from the move cost table. In a local optimum of the single moves,
+	//the first improving Kempe chain is applied and the descent goes on.
+	//Stops in a local optimum, or after maxEvaluations evaluated moves or timeLimit nanoseconds (Long.MAX_VALUE for no time limit).
+	public Individual hybridize(boolean bestImprovement, int maxEvaluations, long timeLimit) {
+		Individual ret = new Individual(this);
+		ret.individualId = newId();
+		long deadline = timeLimit == Long.MAX_VALUE ? Long.MAX_VALUE : System.nanoTime() + timeLimit;
+		int maxExam = instance.getMaxExam(), evaluations = 0;
+		int first = Rng.current().nextInt(maxExam);		//exams are scanned from a random one, not to favour the lowest ids
+		boolean improved = true;
+		while(improved && evaluations < maxEvaluations) {
+			improved = false;
+			int bestExam = 0, bestSlot = 0, bestDelta = 0;
+			for(int k = 0; k < maxExam && evaluations < maxEvaluations; k++) {
+				if(System.nanoTime() >= deadline)
+					break;
+				int exam = (first + k) % maxExam + 1;
+				for(int slot = 1; slot <= nSlots; slot++) {
+					if(!contains(ret.acceptables, slot, words, exam))
+						continue;
+					evaluations++;
+					int delta = ret.getMoveDelta(exam, slot);
+					if(delta < bestDelta) {
+						bestDelta = delta;
+						bestExam = exam;
+						bestSlot = slot;
+						if(!bestImprovement)
+							break;
+					}
+				}
+				if(!bestImprovement && bestDelta < 0) {
+					ret.moveExam(bestExam, bestSlot);
+					improved = true;
+					bestDelta = 0;
+				}
+			}
+			if(bestImprovement && bestDelta < 0) {
+				ret.moveExam(bestExam, bestSlot);
+				improved = true;
+			}
+			for(int k = 0; k < maxExam && !improved && evaluations < maxEvaluations && System.nanoTime() < deadline; k++) {
+				int exam = (first + k) % maxExam + 1, from = ret.assignment[exam];
+				for(int slot = 1; slot <= nSlots && !improved; slot++) {
+					if(slot == from || contains(ret.acceptables, slot, words, exam))	//single moves, already tried
+						continue;
+					int[] chain = ret.kempeChain(exam, slot);
+					evaluations += chain.length;
+					if(ret.getKempeDelta(chain, from, slot) < 0) {
+						ret.applyKempeChain(chain, from, slot);
+						improved = true;
+					}
+				}
+			}
+		}
+		return ret;
+	}
+
+	// Exam -> timeslot array, index 0 is unused. Not a copy: do not modify it.
+	public int[] getAssignment() {
+		return assignment;
+	}
+
+	public float getPenalty() {
+		return ((float) penalty)/instance.getNumberOfStudents();
+	}
+
+	public float getFitness(float worstPenalty) {
+		float thisPenalty = getPenalty();
+		return (float) Math.pow(2, (worstPenalty - thisPenalty)/(0.0025*worstPenalty) );
+	}
+
+	public int getNumberOfSlots() {
+		return nSlots;
+	}
+
+	public int getSlot(int exam) {
+		return assignment[exam];
+	}
+
+	public int[] getExamsInSlot(int slot) {
+		return members(timeslots, slot, words);
+	}
+
+	// True if exam can be moved to slot without creating conflicts
+	public boolean isAcceptable(int exam, int slot) {
+		return contains(acceptables, slot, words, exam);
+	}
+
+	public int getId() {
+		return individualId;
+	}
+
+	public int newId() {
+		return individualCounter.getAndIncrement();
+	}
+
+	public boolean isFeasible() {
+		return this.checkFeasibility(assignment);
+	}
+
+}
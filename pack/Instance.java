@@ -1,176 +1,266 @@
-package pack;
-import java.util.Map;
-import java.util.stream.*;
-import java.util.LinkedHashMap;
-import java.util.List;
-import java.io.FileWriter;
-import java.io.IOException;
-import java.io.PrintWriter;
-import java.nio.file.Files;
-import java.nio.file.Paths;
-import java.util.ArrayList;
-import java.util.Collections;
-
-public class Instance {
-	private Map<Integer,Integer> numberOfStudentsPerExam = new LinkedHashMap<>();		//map exam to number of students
-	private Integer numberOfSlots;
-	private Map<Integer,List<Integer>> listOfExamsPerStudent = new LinkedHashMap<>();	//map student to list of his exams
-	private Map<Integer,List<Integer>> listOfStudentsPerExam = new LinkedHashMap<>();	//map exam to list of its students
-	private Integer numberOfExams;
-	private Integer numberOfStudents;
-	private Integer maxExam;
-	private Integer[][] conflictMatrix;		//at position i,j number of conflicting students for exams i and j
-	private Map<Integer,Integer> conflictingStudents = new LinkedHashMap<>();			//map exam to number of students in conflict with other exams
-	private List<Integer> examList = new ArrayList<>();
-
-	private void readExams(String fileName) throws IOException {
-		try (Stream<String> stream = Files.lines(Paths.get(fileName))) {
-	        stream.forEach(s -> {
-	        	String[] parts = s.split(" ");
-	        	if(parts.length == 2)
-	        		numberOfStudentsPerExam.put(Integer.valueOf(parts[0]), Integer.valueOf(parts[1]));
-	        });
-		}
-		this.examList.addAll(this.numberOfStudentsPerExam.keySet());
-		// System.out.println(exams);
-	}
-	
-	private void readSlots(String fileName) throws IOException {
-		try (Stream<String> stream = Files.lines(Paths.get(fileName))) {
-	        stream.forEach(s -> {
-	        	numberOfSlots = Integer.valueOf(s);
-	        });
-		}
-		// System.out.println(slots);
-	}
-	
-	private void readStudents(String fileName) throws IOException {
-		try (Stream<String> stream = Files.lines(Paths.get(fileName))) {
-	        stream.forEach(s -> {
-	        	String[] parts = s.split(" ");
-	        	parts[0] = parts[0].substring(1);
-	        	if(parts.length == 2) {
-	        		if(!listOfExamsPerStudent.containsKey(Integer.valueOf(parts[0])))
-	        			listOfExamsPerStudent.put(Integer.valueOf(parts[0]), new ArrayList<Integer>());
-	        		listOfExamsPerStudent.get(Integer.valueOf(parts[0])).add(Integer.valueOf(parts[1]));
-	        		
-	        		if(!listOfStudentsPerExam.containsKey(Integer.valueOf(parts[1])))
-	        			listOfStudentsPerExam.put(Integer.valueOf(parts[1]), new ArrayList<Integer>());
-	        		listOfStudentsPerExam.get(Integer.valueOf(parts[1])).add(Integer.valueOf(parts[0]));
-	        	}	        		
-	        });
-		}
-		// System.out.println(students);
-	}
-	
-	public Instance(String instanceName) {
-		try {
-			readExams(instanceName + ".exm");
-		} catch (IOException e) {
-			System.out.println("Error reading " + instanceName + ".exm");
-			System.exit(-1);
-		}
-		this.numberOfExams = this.numberOfStudentsPerExam.size();
-		this.maxExam = Collections.max(this.numberOfStudentsPerExam.keySet());
-		this.conflictMatrix = new Integer[this.maxExam+1][this.maxExam+1];
-		for(int i = 0; i <= this.maxExam; i++)
-			for(int j = 0; j <= this.maxExam; j++)
-				this.conflictMatrix[i][j] = 0;
-		
-		try {
-			readSlots(instanceName + ".slo");
-		} catch (IOException e) {
-			System.out.println("Error reading " + instanceName + ".slo");
-			System.exit(-1);
-		}
-		
-		try {
-			readStudents(instanceName + ".stu");
-		} catch (IOException e) {
-			System.out.println("Error reading " + instanceName + ".slo");
-			System.exit(-1);
-		}
-		this.numberOfStudents = this.listOfExamsPerStudent.keySet().size();
-		
-		// Feed conflict matrix with number of conflicting students
-		for(int i : this.listOfStudentsPerExam.keySet())
-			for(int j : this.listOfStudentsPerExam.keySet()) {
-				if(j > i) {
-					List<Integer> common = new ArrayList<Integer>(listOfStudentsPerExam.get(i));
-					common.retainAll(listOfStudentsPerExam.get(j));
-					if(!common.isEmpty())
-						this.conflictMatrix[i][j] = this.conflictMatrix[j][i] = common.size();
-				}
-			}
-		
-		// Map exams to number of conflicting students and sort
-		for(int i : this.listOfStudentsPerExam.keySet()) {
-			Integer sum = 0;
-			for(int x : this.conflictMatrix[i])
-				sum += x;
-			this.conflictingStudents.put(i, sum);
-		}
-		this.conflictingStudents = this.conflictingStudents.entrySet().stream().sorted(Map.Entry.<Integer,Integer>comparingByValue()
-			.reversed()).collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (e1, e2) -> e1, LinkedHashMap::new));
-		//System.out.println(this.conflictingStudents);
-	}
-	
-	public void printConflictMatrix(String fileName) throws IOException {
-		FileWriter fw = new FileWriter(fileName);
-		PrintWriter pw = new PrintWriter(fw);
-		pw.print("\t");
-		for(int exam = 0; exam <= this.maxExam; exam++)
-			pw.print(exam + "\t");
-		pw.print("\n");
-		
-		for(int i = 0; i <= this.maxExam; i++) {
-			pw.print(i + "\t");
-			for(int j = 0; j <= this.maxExam; j++)
-				pw.print(this.conflictMatrix[i][j] + "\t");
-			pw.print("\n");
-		}
-		pw.close();
-		//fw.close();
-	}
-
-	public Integer getMaxExam() {
-		return maxExam;
-	}
-
-	public Integer getNumberOfExams() {
-		return numberOfExams;
-	}
-
-	public Integer[][] getConflictMatrix() {
-		return conflictMatrix;
-	}
-
-	public Map<Integer, Integer> getConflictingStudents() {
-		return conflictingStudents;
-	}
-
-	public Map<Integer, Integer> getNumberOfStudentsPerExam() {
-		return numberOfStudentsPerExam;
-	}
-
-	public Integer getNumberOfSlots() {
-		return numberOfSlots;
-	}
-	
-	public Integer getNumberOfStudents() {
-		return numberOfStudents;
-	}
-
-	public Map<Integer, List<Integer>> getListOfExamsPerStudent() {
-		return listOfExamsPerStudent;
-	}
-
-	public Map<Integer, List<Integer>> getListOfStudentsPerExam() {
-		return listOfStudentsPerExam;
-	}
-	
-	public List<Integer> getExamList() {
-		return examList;
-	}
-
-}
+package pack;
+import java.util.Map;
+import java.util.stream.*;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+
+public class Instance {
+	public static final int MAXDISTANCE = 5;		//conflicting exams farther apart than this (in slots) cause no penalty
+	private static final int[] PROXIMITY = {32, 16, 8, 4, 2, 1};	//2^(5-d) for the distances d = 0..MAXDISTANCE
+	private Map<Integer,Integer> numberOfStudentsPerExam = new LinkedHashMap<>();		//map exam to number of students
+	private Integer numberOfSlots;
+	private Map<Integer,List<Integer>> listOfExamsPerStudent = new LinkedHashMap<>();	//map student to list of his exams
+	private Map<Integer,List<Integer>> listOfStudentsPerExam = new LinkedHashMap<>();	//map exam to list of its students
+	private Integer numberOfExams;
+	private Integer numberOfStudents;
+	private Integer maxExam;
+	private Integer[][] conflictMatrix;		//boxed copy of conflicts, only built on request
+	private int[] conflicts;				//at position i*(maxExam+1)+j number of conflicting students for exams i and j
+	private int[] neighbourStart;			//compressed sparse rows: neighbours of exam i are at positions neighbourStart[i] .. neighbourStart[i+1]-1
+	private int[] neighbours;				//conflicting exam ids
+	private int[] neighbourWeights;			//number of conflicting students with the corresponding neighbour
+	private Map<Integer,Integer> conflictingStudents = new LinkedHashMap<>();			//map exam to number of students in conflict with other exams
+	private List<Integer> examList = new ArrayList<>();
+
+	private void readExams(String fileName) throws IOException {
+		try (Stream<String> stream = Files.lines(Paths.get(fileName))) {
+	        stream.forEach(s -> {
+	        	String[] parts = s.split(" ");
+	        	if(parts.length == 2)
+	        		numberOfStudentsPerExam.put(Integer.valueOf(parts[0]), Integer.valueOf(parts[1]));
+	        });
+		}
+		this.examList.addAll(this.numberOfStudentsPerExam.keySet());
+		// System.out.println(exams);
+	}
+	
+	private void readSlots(String fileName) throws IOException {
+		try (Stream<String> stream = Files.lines(Paths.get(fileName))) {
+	        stream.forEach(s -> {
+	        	numberOfSlots = Integer.valueOf(s);
+	        });
+		}
+		// System.out.println(slots);
+	}
+	
+	private void readStudents(String fileName) throws IOException {
+		try (Stream<String> stream = Files.lines(Paths.get(fileName))) {
+	        stream.forEach(s -> {
+	        	String[] parts = s.split(" ");
+	        	parts[0] = parts[0].substring(1);
+	        	if(parts.length == 2) {
+	        		if(!listOfExamsPerStudent.containsKey(Integer.valueOf(parts[0])))
+	        			listOfExamsPerStudent.put(Integer.valueOf(parts[0]), new ArrayList<Integer>());
+	        		listOfExamsPerStudent.get(Integer.valueOf(parts[0])).add(Integer.valueOf(parts[1]));
+	        		
+	        		if(!listOfStudentsPerExam.containsKey(Integer.valueOf(parts[1])))
+	        			listOfStudentsPerExam.put(Integer.valueOf(parts[1]), new ArrayList<Integer>());
+	        		listOfStudentsPerExam.get(Integer.valueOf(parts[1])).add(Integer.valueOf(parts[0]));
+	        	}	        		
+	        });
+		}
+		// System.out.println(students);
+	}
+	
+	public Instance(String instanceName) {
+		this(instanceName, false);
+	}
+	
+	// pairwiseConflicts selects the old O(E^2 * S) construction of the conflict matrix, kept only for timing comparisons
+	Instance(String instanceName, boolean pairwiseConflicts) {
+		try {
+			readExams(instanceName + ".exm");
+		} catch (IOException e) {
+			System.out.println("Error reading " + instanceName + ".exm");
+			System.exit(-1);
+		}
+		this.numberOfExams = this.numberOfStudentsPerExam.size();
+		this.maxExam = Collections.max(this.numberOfStudentsPerExam.keySet());
+		
+		try {
+			readSlots(instanceName + ".slo");
+		} catch (IOException e) {
+			System.out.println("Error reading " + instanceName + ".slo");
+			System.exit(-1);
+		}
+		
+		try {
+			readStudents(instanceName + ".stu");
+		} catch (IOException e) {
+			System.out.println("Error reading " + instanceName + ".slo");
+			System.exit(-1);
+		}
+		this.numberOfStudents = this.listOfExamsPerStudent.keySet().size();
+		
+		// Feed conflict matrix with number of conflicting students
+		if(pairwiseConflicts)
+			buildConflictMatrixPairwise();
+		else
+			buildConflictMatrix();
+		buildNeighbourLists();
+		
+		// Map exams to number of conflicting students and sort
+		for(int i : this.listOfStudentsPerExam.keySet()) {
+			Integer sum = 0;
+			for(int k = this.neighbourStart[i]; k < this.neighbourStart[i+1]; k++)
+				sum += this.neighbourWeights[k];
+			this.conflictingStudents.put(i, sum);
+		}
+		this.conflictingStudents = this.conflictingStudents.entrySet().stream().sorted(Map.Entry.<Integer,Integer>comparingByValue()
+			.reversed()).collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (e1, e2) -> e1, LinkedHashMap::new));
+		//System.out.println(this.conflictingStudents);
+	}
+	
+	// Walk the exams of each student once and count every pair he is enrolled in: time is proportional to the enrollments
+	private void buildConflictMatrix() {
+		int n = this.maxExam + 1;
+		int[] exams;
+		this.conflicts = new int[n*n];
+		for(List<Integer> l : this.listOfExamsPerStudent.values()) {
+			exams = l.stream().mapToInt(Integer::intValue).toArray();
+			for(int a = 0; a < exams.length; a++)
+				for(int b = a + 1; b < exams.length; b++)
+					if(exams[a] != exams[b]) {
+						this.conflicts[exams[a]*n + exams[b]]++;
+						this.conflicts[exams[b]*n + exams[a]]++;
+					}
+		}
+	}
+	
+	// Intersect the student lists of every pair of exams, O(E^2 * S)
+	private void buildConflictMatrixPairwise() {
+		int n = this.maxExam + 1;
+		this.conflicts = new int[n*n];
+		for(int i : this.listOfStudentsPerExam.keySet())
+			for(int j : this.listOfStudentsPerExam.keySet()) {
+				if(j > i) {
+					List<Integer> common = new ArrayList<Integer>(listOfStudentsPerExam.get(i));
+					common.retainAll(listOfStudentsPerExam.get(j));
+					if(!common.isEmpty())
+						this.conflicts[i*n + j] = this.conflicts[j*n + i] = common.size();
+				}
+			}
+	}
+	
+	// Compress the rows of the conflict matrix so that only real conflicts are visited
+	private void buildNeighbourLists() {
+		int n = this.maxExam + 1, k = 0;
+		this.neighbourStart = new int[n + 1];
+		for(int i = 0; i < n; i++)
+			for(int j = 0; j < n; j++)
+				if(this.conflicts[i*n + j] != 0)
+					k++;
+		this.neighbours = new int[k];
+		this.neighbourWeights = new int[k];
+		k = 0;
+		for(int i = 0; i < n; i++) {
+			this.neighbourStart[i] = k;
+			for(int j = 0; j < n; j++)
+				if(this.conflicts[i*n + j] != 0) {
+					this.neighbours[k] = j;
+					this.neighbourWeights[k] = this.conflicts[i*n + j];
+					k++;
+				}
+		}
+		this.neighbourStart[n] = k;
+	}
+	
+	public void printConflictMatrix(String fileName) throws IOException {
+		FileWriter fw = new FileWriter(fileName);
+		PrintWriter pw = new PrintWriter(fw);
+		pw.print("\t");
+		for(int exam = 0; exam <= this.maxExam; exam++)
+			pw.print(exam + "\t");
+		pw.print("\n");
+		
+		for(int i = 0; i <= this.maxExam; i++) {
+			pw.print(i + "\t");
+			for(int j = 0; j <= this.maxExam; j++)
+				pw.print(this.conflicts[i*(this.maxExam+1) + j] + "\t");
+			pw.print("\n");
+		}
+		pw.close();
+		//fw.close();
+	}
+
+	public Integer getMaxExam() {
+		return maxExam;
+	}
+
+	public Integer getNumberOfExams() {
+		return numberOfExams;
+	}
+
+	// Boxed view of the conflict matrix, built on first use. Hot loops should use getConflicts() or the neighbour lists instead.
+	public synchronized Integer[][] getConflictMatrix() {
+		if(conflictMatrix == null) {
+			int n = this.maxExam + 1;
+			conflictMatrix = new Integer[n][n];
+			for(int i = 0; i < n; i++)
+				for(int j = 0; j < n; j++)
+					conflictMatrix[i][j] = conflicts[i*n + j];
+		}
+		return conflictMatrix;
+	}
+
+	public int[] getConflicts() {
+		return conflicts;
+	}
+
+	public int getConflict(int exam1, int exam2) {
+		return conflicts[exam1*(maxExam+1) + exam2];
+	}
+
+	public int[] getNeighbourStart() {
+		return neighbourStart;
+	}
+
+	public int[] getNeighbours() {
+		return neighbours;
+	}
+
+	public int[] getNeighbourWeights() {
+		return neighbourWeights;
+	}
+
+	public Map<Integer, Integer> getConflictingStudents() {
+		return conflictingStudents;
+	}
+
+	public Map<Integer, Integer> getNumberOfStudentsPerExam() {
+		return numberOfStudentsPerExam;
+	}
+
+	public Integer getNumberOfSlots() {
+		return numberOfSlots;
+	}
+	
+	public Integer getNumberOfStudents() {
+		return numberOfStudents;
+	}
+
+	public Map<Integer, List<Integer>> getListOfExamsPerStudent() {
+		return listOfExamsPerStudent;
+	}
+
+	public Map<Integer, List<Integer>> getListOfStudentsPerExam() {
+		return listOfStudentsPerExam;
+	}
+	
+	//Penalty weight of a pair of conflicting students whose exams are distance slots apart
+	public static int proximity(int distance) {
+		return (distance <= MAXDISTANCE)? PROXIMITY[distance] : 0;
+	}
+
+	public List<Integer> getExamList() {
+		return examList;
+	}
+
+}
@@ -0,0 +1,35 @@
+package pack;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+// Compares the load time of an instance with the enrollment-based and the old pairwise conflict matrix construction.
+// Usage: InstanceLoadTiming [instanceName ...]		(defaults to instance01 ... instance08 in the working directory)
+public class InstanceLoadTiming {
+
+	public static void main(String[] args) {
+		String[] names = args;
+		if(names.length == 0) {
+			names = new String[8];
+			for(int i = 0; i < names.length; i++)
+				names[i] = String.format("instance%02d", i+1);
+		}
+		new Instance(names[0]);		// warm up the JIT and the file cache before measuring
+		new Instance(names[0], true);
+
+		System.out.println("instance\tenrollments\tpairwise [ms]\tenrollments [ms]\tspeedup");
+		for(String name : names) {
+			long t0 = System.nanoTime();
+			Instance pairwise = new Instance(name, true);
+			long t1 = System.nanoTime();
+			Instance sparse = new Instance(name);
+			long t2 = System.nanoTime();
+			if(!Arrays.equals(pairwise.getConflicts(), sparse.getConflicts()))
+				System.out.println("Conflict matrices differ for " + name + "!");
+			long enrollments = sparse.getListOfExamsPerStudent().values().stream().mapToInt(l -> l.size()).sum();
+			System.out.println(name + "\t" + enrollments + "\t" + TimeUnit.NANOSECONDS.toMillis(t1 - t0) + "\t"
+					+ TimeUnit.NANOSECONDS.toMillis(t2 - t1) + "\t" + String.format("%.1fx", (double) (t1 - t0) / (t2 - t1)));
+		}
+	}
+
+}
@@ -0,0 +1,122 @@
+package pack;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+
+// Island model: several populations evolve on their own threads, all reading the same instance. Every migrationInterval iterations
+// the islands meet at a barrier, where the best individuals of each island migrate to another one and the global best is written.
+public class IslandModel {
+	private Population[] islands;
+	private int migrationInterval;			// iterations between two migrations
+	private int migrants;					// individuals sent by each island at every migration
+	private boolean ring;					// ring topology, otherwise each migration follows a new random ring
+	private long start, duration;
+	private String outputFile;
+	private SolutionWriter writer;
+	private Individual best = null;			// global best, only touched by the barrier action
+	private volatile boolean over = false;
+	private volatile boolean spent = false;		// an island is over before the time, e.g. its iteration budget is spent
+	private SplittableRandom rng = Rng.split();	// of the random topology, whichever island thread runs the barrier action
+
+	public IslandModel(int nIslands, int popSize, Instance instance, float percentage, long start, long duration, String outputFile,
+			int migrationInterval, int migrants, boolean ring, int threads) {
+		this.islands = new Population[nIslands];
+		for (int i = 0; i < nIslands; i++)
+			islands[i] = new Population(popSize, instance, percentage, start, duration, null, threads);	// islands do not write
+		this.migrationInterval = migrationInterval;
+		this.migrants = migrants;
+		this.ring = ring;
+		this.start = start;
+		this.duration = duration;
+		this.outputFile = outputFile+"_DMOgroup07.sol";
+		this.writer = new SolutionWriter(this.outputFile, instance);
+	}
+
+	public void setSelection(Selection.Method method) {
+		for (Population island : islands)
+			island.setSelection(method);
+	}
+
+	public void setBudget(int iterations) {
+		for (Population island : islands)
+			island.setBudget(iterations);
+	}
+
+	public void setLocalSearch(boolean bestImprovement, int maxEvaluations) {
+		for (Population island : islands)
+			island.setLocalSearch(bestImprovement, maxEvaluations);
+	}
+
+	public void evolve() {
+		CyclicBarrier barrier = new CyclicBarrier(islands.length, this::migrate);
+		Thread[] threads = new Thread[islands.length];
+		for (int i = 0; i < islands.length; i++) {
+			Population island = islands[i];
+			threads[i] = new Thread(Rng.withOwnStream(() -> {
+				try {
+					while (!over) {
+						if (!island.evolve(migrationInterval))
+							spent = true;
+						barrier.await();
+					}
+				} catch (InterruptedException | BrokenBarrierException e) {
+					e.printStackTrace();
+				}
+			}), "island-" + i);
+			threads[i].start();
+		}
+		for (Thread t : threads)
+			try {
+				t.join();
+			} catch (InterruptedException e) {
+				e.printStackTrace();
+			}
+		writer.close();
+	}
+
+	// Barrier action, run by the last island reaching the barrier while all the others are waiting
+	private void migrate() {
+		Individual previous = best;
+		for (Population island : islands) {
+			Individual b = island.getBestFound();
+			if (b != null && (best == null || b.getPenalty() < best.getPenalty()))
+				best = b;
+		}
+		if (best != previous) {
+			Telemetry.info("Lowest penalty: " + best.getPenalty());
+			Telemetry.debug("Printing results to: "+this.outputFile);
+			writer.submit(best);
+		}
+		if (spent || (System.nanoTime()-start) >= duration) {
+			over = true;
+			return;
+		}
+
+		// destination[i] is the island receiving the migrants of island i
+		int n = islands.length;
+		int[] destination = new int[n];
+		if (ring)
+			for (int i = 0; i < n; i++)
+				destination[i] = (i + 1) % n;
+		else {
+			int[] perm = new int[n];
+			for (int i = 0; i < n; i++)
+				perm[i] = i;
+			for (int i = n - 1; i > 0; i--) {
+				int j = rng.nextInt(i + 1);
+				int tmp = perm[i];
+				perm[i] = perm[j];
+				perm[j] = tmp;
+			}
+			for (int i = 0; i < n; i++)
+				destination[perm[i]] = perm[(i + 1) % n];
+		}
+		Individual[][] emigrants = new Individual[n][];
+		for (int i = 0; i < n; i++)
+			emigrants[i] = islands[i].getBest(migrants);
+		for (int i = 0; i < n; i++)
+			islands[destination[i]].immigrate(emigrants[i]);
+	}
+
+}
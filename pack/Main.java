@@ -1,13 +1,81 @@
 package pack;
 
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
 import java.util.concurrent.TimeUnit;
 
 public class Main {
 
 	public static void main(String[] args) {
 		long start = System.nanoTime();
-		if(args.length != 3 || !args[1].equals("-t")) {
+		if(args.length < 3 || !args[1].equals("-t")) {
+			System.out.println("Arguments error!");
+			System.exit(-1);
+		}
+		int threads = 1;		//threads generating the offsprings (evaluating the neighbourhood for the tabu search)
+		int islands = 1;		//populations of the island model, each one on its own thread
+		int migration = 50;		//iterations between two migrations
+		int migrants = 2;		//individuals sent by each island at every migration
+		boolean ring = true;	//migration topology: ring or random
+		Selection.Method selection = Selection.Method.ROULETTE;	//of the individuals for reproduction
+		String engine = "ga";	//search engine: genetic algorithm (ga), simulated annealing (sa) or tabu search (tabu)
+		int portfolio = 0;		//differently configured GA engines racing together, 0 for a single population
+		boolean restart = false;	//portfolio engines restart from the best solution found by any of them
+		String localSearch = null;	//hybridization of the offsprings: first or best improvement, null if off
+		int localSearchEvaluations = 20000;	//moves evaluated in the local search of each offspring
+		String output = args[0];	//prefix of the solution file
+		boolean summary = false;	//print a summary line at the end, read by the BatchRunner
+		Long budget = null;		//iterations (moves for the SA) driving the schedules instead of the time, null for none
+		for(int i = 3; i < args.length; i++) {
+			if(args[i].equals("-threads") && i + 1 < args.length)
+				threads = Integer.parseInt(args[++i]);
+			else if(args[i].equals("-islands") && i + 1 < args.length)
+				islands = Integer.parseInt(args[++i]);
+			else if(args[i].equals("-migration") && i + 1 < args.length)
+				migration = Integer.parseInt(args[++i]);
+			else if(args[i].equals("-migrants") && i + 1 < args.length)
+				migrants = Integer.parseInt(args[++i]);
+			else if(args[i].equals("-selection") && i + 1 < args.length && isSelectionMethod(args[i + 1]))
+				selection = Selection.Method.valueOf(args[++i].toUpperCase());
+			else if(args[i].equals("-ls") && i + 1 < args.length && (args[i + 1].equals("first") || args[i + 1].equals("best")))
+				localSearch = args[++i];
+			else if(args[i].equals("-lsbudget") && i + 1 < args.length)
+				localSearchEvaluations = Integer.parseInt(args[++i]);
+			else if(args[i].equals("-engine") && i + 1 < args.length && (args[i + 1].equals("ga") || args[i + 1].equals("sa") || args[i + 1].equals("tabu")))
+				engine = args[++i];
+			else if(args[i].equals("-portfolio") && i + 1 < args.length)
+				portfolio = Integer.parseInt(args[++i]);
+			else if(args[i].equals("-restart"))
+				restart = true;
+			else if((args[i].equals("-seed") || args[i].equals("--seed")) && i + 1 < args.length)
+				Rng.seed(Long.parseLong(args[++i]));	//reproducible run, given the same number of threads
+			else if(args[i].equals("-out") && i + 1 < args.length)
+				output = args[++i];
+			else if(args[i].equals("-budget") && i + 1 < args.length)
+				budget = Long.parseLong(args[++i]);
+			else if(args[i].equals("-summary"))
+				summary = true;
+			else if(args[i].equals("-q"))
+				Telemetry.setLevel(Telemetry.QUIET);
+			else if(args[i].equals("-v"))
+				Telemetry.setLevel(Telemetry.DEBUG);
+			else if(args[i].equals("-topology") && i + 1 < args.length && (args[i + 1].equals("ring") || args[i + 1].equals("random")))
+				ring = args[++i].equals("ring");
+			else {
+				System.out.println("Arguments error!");
+				System.exit(-1);
+			}
+		}
+		//a seeded run must not take decisions on the clock, so it needs a budget; the GA engines count it in int iterations
+		if((Rng.isSeeded() && budget == null) || (budget != null && (budget <= 0
+				|| (!engine.equals("sa") && !engine.equals("tabu") && budget > Integer.MAX_VALUE)))) {
+			if(budget == null)
+				Telemetry.error("-seed needs a -budget: the schedules of a reproducible run follow the iterations, not the clock");
 			System.out.println("Arguments error!");
 			System.exit(-1);
 		}
@@ -34,8 +102,59 @@ public class Main {
 			e.printStackTrace();
 		}
 		System.out.println(ind.getFitness());*/
-		Population pop = new Population(10,instance, 90, start, dur, args[0]); //(popSize, instance, %popSubstituted, startTime, algorithmDuration)
-		System.out.println(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+		if(engine.equals("sa")) {
+			SimulatedAnnealing sa = new SimulatedAnnealing(instance, start, dur, output);
+			if(budget != null)
+				sa.setBudget(budget);
+			sa.run();
+			terminate(start, summary);
+			return;
+		}
+		if(engine.equals("tabu")) {
+			TabuSearch tabu = new TabuSearch(instance, start, dur, output, threads);
+			if(budget != null)
+				tabu.setBudget(budget);
+			tabu.run();
+			terminate(start, summary);
+			return;
+		}
+		if(portfolio > 0) {
+			List<String> ignored = new ArrayList<>();		//options of the single population, the engines have their own configurations
+			if(threads != 1)
+				ignored.add("-threads");
+			if(selection != Selection.Method.ROULETTE)
+				ignored.add("-selection");
+			if(localSearch != null)
+				ignored.add("-ls");
+			if(localSearchEvaluations != 20000)
+				ignored.add("-lsbudget");
+			if(!ignored.isEmpty())
+				Telemetry.error("Ignored by the portfolio: " + String.join(" ", ignored));
+			Portfolio p = new Portfolio(portfolio, instance, start, dur, output, restart);
+			if(budget != null)
+				p.setBudget(budget.intValue());
+			p.run();
+			terminate(start, summary);
+			return;
+		}
+		if(islands > 1) {
+			IslandModel model = new IslandModel(islands, 10, instance, 90, start, dur, output, migration, migrants, ring, threads);
+			model.setSelection(selection);
+			if(budget != null)
+				model.setBudget(budget.intValue());
+			if(localSearch != null)
+				model.setLocalSearch(localSearch.equals("best"), localSearchEvaluations);
+			model.evolve();
+			terminate(start, summary);
+			return;
+		}
+		Population pop = new Population(10,instance, 90, start, dur, output, threads); //(popSize, instance, %popSubstituted, startTime, algorithmDuration, outputFile, threads)
+		pop.setSelection(selection);
+		if(budget != null)
+			pop.setBudget(budget.intValue());
+		if(localSearch != null)
+			pop.setLocalSearch(localSearch.equals("best"), localSearchEvaluations);
+		Telemetry.info("Initial population built in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
 		/*int i=0;
 		for(Individual ind : pop.getPopulation())
 			try {
@@ -50,10 +169,27 @@ public class Main {
 		
 		//Starting evolutionary process:
 		pop.evolve();
-		System.out.println("Terminating");
-		System.out.println("");
-		System.out.println("--------------------");
-		System.out.println("");
+		terminate(start, summary);
+	}
+
+	//Summary of the run: best penalty, seconds to reach it, iterations, seconds of the whole run and peak heap in bytes
+	private static void terminate(long start, boolean summary) {
+		Telemetry.info("Terminating");
+		if(!summary)
+			return;
+		long peakHeap = 0;
+		for(MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+			if(pool.getType() == MemoryType.HEAP)
+				peakHeap += pool.getPeakUsage().getUsed();
+		System.out.println(String.format(Locale.ROOT, "summary %.6f %.3f %d %.3f %d", Telemetry.getBestPenalty(),
+				(Telemetry.getBestTime() - start) / 1e9, Telemetry.getIterations(), (System.nanoTime() - start) / 1e9, peakHeap));
+	}
+
+	private static boolean isSelectionMethod(String name) {
+		for(Selection.Method m : Selection.Method.values())
+			if(m.name().equalsIgnoreCase(name))
+				return true;
+		return false;
 	}
 
 }
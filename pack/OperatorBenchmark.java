@@ -0,0 +1,79 @@
+package pack;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Microbenchmarks of the instance loading and of the operators of Individual, to measure every performance change against a baseline.
+// Each benchmark is warmed up, then timed over ROUNDS rounds: it reports the fastest round in ns/op and the bytes allocated per operation
+// by the benchmarking thread. Results go to stdout as tab separated values.
+// Usage: OperatorBenchmark [instanceName ...]		(defaults to instance01 ... instance08 in the working directory)
+public class OperatorBenchmark {
+	final private static long WARMUP = TimeUnit.MILLISECONDS.toNanos(300);	//per benchmark
+	final private static long ROUND = TimeUnit.MILLISECONDS.toNanos(100);
+	final private static int ROUNDS = 5;
+	final private static int POPSIZE = 10;			//as in Main
+	final private static float PERCENTAGE = 90;
+
+	private static com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+	private static volatile int sink;				//every result ends up here, so the JIT cannot drop the benchmarked code
+
+	public static void main(String[] args) {
+		String[] names = args;
+		if(names.length == 0) {
+			names = new String[8];
+			for(int i = 0; i < names.length; i++)
+				names[i] = String.format("instance%02d", i+1);
+		}
+		Rng.seed(0);			//the same individuals at every run
+		Telemetry.setLevel(Telemetry.QUIET);
+
+		System.out.println("instance\tbenchmark\tns/op\tB/op");
+		for(String name : names) {
+			Instance instance = new Instance(name);
+			Individual ind = new Individual(instance), other = new Individual(instance);
+			Population population = new Population(POPSIZE, instance, PERCENTAGE, System.nanoTime(), Long.MAX_VALUE, null);
+			float[] fitness = new float[POPSIZE];		//as Population.refreshFitness: relative to the average penalty
+			float worstPenalty = (float) Arrays.stream(population.getPopulation()).mapToDouble(Individual::getPenalty).average().getAsDouble();
+			for(int i = 0; i < POPSIZE; i++)
+				fitness[i] = population.getPopulation()[i].getFitness(worstPenalty);
+			int n = (int) (POPSIZE * PERCENTAGE / 100);
+
+			run(name, "Instance", () -> new Instance(name));
+			run(name, "Individual", () -> new Individual(instance));
+			run(name, "computePenalty", () -> ind.computePenalty());
+			run(name, "computePenaltyPerSlot", () -> ind.computePenaltyPerSlot());
+			run(name, "mutate", () -> ind.mutate());
+			run(name, "swapSlots", () -> ind.swapSlots());
+			run(name, "desrupt", () -> ind.desrupt());
+			run(name, "crossover", () -> {
+				List<Individual> offsprings = ind.crossover(other, 0.5f);
+				return offsprings.size();
+			});
+			run(name, "clone", () -> ind.clone());
+			run(name, "selectNbyFitness", () -> population.selectNbyFitness(fitness, n));
+		}
+	}
+
+	private static void run(String instance, String benchmark, Supplier<Object> op) {
+		long end = System.nanoTime() + WARMUP;
+		while(System.nanoTime() < end)
+			sink += op.get().hashCode();
+
+		long id = Thread.currentThread().getId();
+		double best = Double.MAX_VALUE, bytes = 0;
+		for(int r = 0; r < ROUNDS; r++) {
+			long ops = 0, allocated = threads.getThreadAllocatedBytes(id), t0 = System.nanoTime(), t1;
+			do {
+				sink += op.get().hashCode();
+				ops++;
+			} while((t1 = System.nanoTime()) - t0 < ROUND);
+			best = Math.min(best, (double) (t1 - t0) / ops);
+			bytes += (double) (threads.getThreadAllocatedBytes(id) - allocated) / ops;
+		}
+		System.out.println(instance + "\t" + benchmark + "\t" + String.format("%.1f\t%.0f", best, bytes / ROUNDS));
+	}
+
+}
@@ -1,17 +1,20 @@
 package pack;
 
-import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
-import java.util.HashMap;
-import java.util.LinkedHashMap;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
-import java.util.OptionalDouble;
-import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class Population {
 	private Integer popSize;
@@ -21,18 +24,61 @@ public class Population {
 	private long duration;
 	private float[] genOpProbabilities;
 	private String outputFile;
+	private Selection selection = new Selection(Selection.Method.ROULETTE);	//of the individuals for reproduction
+	private SolutionWriter writer;		//null when results are not written
+	private ForkJoinPool executor;		//null when offsprings are generated on the calling thread
 	
-	//Arbitrary parameters (NOT BAD at 0.9 0.1 0.7)
-	final private float crossover = (float) 0.9;
-	final private float mutation = (float) 0.1;
-	final private float maxMovingProbability = (float) 0.9;
+	//Arbitrary parameters (NOT BAD at 0.9 0.1 0.7), can be changed with setOperatorBalance
+	private float crossover = (float) 0.9;
+	private float mutation = (float) 0.1;
+	private float maxMovingProbability = (float) 0.9;
 	
-	final private int MAXFLATITERATIONS = 750;
+	private int maxFlatIterations = 750;	//iterations without improvement before a godsIntervention
 	final private int GODTIMELIMIT = 15;	//number of seconds from the end from which cannot do godsIntervention anymore
+	final private int GODMAXSTRENGTH = 8;	//maximum multiplier of the perturbation of a godsIntervention
+	final private int SLOTORDERINTERVAL = 50;	//number of iterations between two reorderings of the slots of the best individual
+	final private long SLOTORDERTIME = TimeUnit.MILLISECONDS.toNanos(20);	//time cap of each reordering
+	final private int SLOTORDERROUNDS = 20;		//cap of each reordering when there is an iteration budget, where it cannot depend on the time
+
+	private SlotOrderer slotOrderer = new SlotOrderer(SLOTORDERTIME);
+	private int budget = 0;						//iterations: if set, the schedules follow them instead of the time and the evolution stops there
+	private boolean budgetCut = false;			//the time ran out before the budget, already reported
+	final private long LOCALSEARCHTIME = TimeUnit.MILLISECONDS.toNanos(5);	//maximum duration of the local search of an offspring
+	private boolean hybridize = false;				//local search on the offsprings
+	private boolean bestImprovement;
+	private int localSearchEvaluations;				//maximum moves evaluated in the local search of an offspring
+	
+	//State of the evolutionary process, kept between calls of evolve(iterations)
+	private boolean evolutionStarted = false;
+	private int crossoverImproves = 0, mutationImproves = 0;
+	private int iteratCnt = 1;
+	private boolean godsInterventionActive = false;
+	private int numberOfFlatIterations = 0;
+	private int interventions = 0;					//godsInterventions so far
+	private int flatInterventions = 0;				//consecutive godsInterventions that did not lead to a better best
+	private float interventionPenalty = Float.MAX_VALUE;	//best penalty at the last godsIntervention
+	private Individual bestPrinted = null;			//best individual found so far, the one written to the output file (if any)
+	private float previousPenalty = Float.MAX_VALUE;
+	private float avgFit1, bestFit1, bestPenalty2;	//statistics at the beginning of the iteration
+	private float[] fitness;						//fitness of the individual in the same position of pop
+	private float avgFitness, bestFitness;			//of the last fitness evaluation
+	private float worstPenalty;
+	private long lastProgressTime;					//time and iteration of the last progress line
+	private int lastProgressIteration;
 	
 	public Population(Integer popSize, Instance instance, float percentage, long start, long duration, String outputFile) {
+		this(popSize, instance, percentage, start, duration, outputFile, 1);
+	}
+	
+	//threads > 1 generates the offsprings of each iteration in parallel on a pool of that size
+	//a null outputFile means that results are not written, e.g. when the population is an island of a bigger model
+	public Population(Integer popSize, Instance instance, float percentage, long start, long duration, String outputFile, int threads) {
 		this.popSize = popSize;
-		this.outputFile = outputFile+"_DMOgroup07.sol";
+		if (threads > 1)
+			this.executor = new ForkJoinPool(threads);
+		this.outputFile = (outputFile == null)? null : outputFile+"_DMOgroup07.sol";
+		if (this.outputFile != null)
+			this.writer = new SolutionWriter(this.outputFile, instance);
 		
 		this.individualsToUpdatePerIteration=(int) (this.popSize*(percentage/100));
 		if (this.individualsToUpdatePerIteration<1) {
@@ -48,15 +94,68 @@ public class Population {
 		this.genOpProbabilities[0]=crossover;
 		this.genOpProbabilities[1]=mutation;
 		
-		pop = new Individual[popSize];
+		pop = buildIndividuals(instance);
 		for(int i = 0; i < popSize; i++) {
-			pop[i] = new Individual(instance);
-			System.out.println(i + ": " + pop[i].getAssignment());
-			System.out.println(i + ": " + pop[i].getPenalty());
+			if(Telemetry.isDebug()) {
+				Telemetry.debug(i + ": " + Arrays.toString(pop[i].getAssignment()));
+				Telemetry.debug(i + ": " + pop[i].getPenalty());
+			}
 			if(!pop[i].isFeasible()) {
-				System.out.println("Non feasible individual " + i);
+				Telemetry.info("Non feasible individual " + i);
+			}
+		}
+	}
+
+	//Build the initial individuals on all the cores, each construction with its own stream of randomness. A few more constructions than popSize
+	//are started: the first popSize to finish are kept and the others, e.g. the ones restarting again and again, are cancelled.
+	//Each individual is written as soon as it improves on the previous ones, so a solution is on disk as early as possible.
+	private Individual[] buildIndividuals(Instance instance) {
+		Individual[] ret = new Individual[popSize];
+		float bestPenalty = Float.MAX_VALUE;
+		int cores = Runtime.getRuntime().availableProcessors();
+		if (cores == 1 || popSize == 1) {
+			for (int i = 0; i < popSize; i++) {
+				SplittableRandom previous = Rng.bind(Rng.split());		//one stream per individual as on many cores, so a seeded run does not depend on them
+				try {
+					ret[i] = new Individual(instance);
+				} finally {
+					Rng.bind(previous);
+				}
+				if (writer != null && ret[i].getPenalty() < bestPenalty) {
+					bestPenalty = ret[i].getPenalty();
+					writer.submit(ret[i]);
+				}
+			}
+			return ret;
+		}
+		ExecutorService pool = Executors.newFixedThreadPool(Math.min(cores, popSize));
+		CompletionService<Individual> constructions = new ExecutorCompletionService<>(pool);
+		List<Future<Individual>> futures = new ArrayList<>();
+		//a seeded run takes the individuals in order of submission, not of completion, and builds no spares
+		int tasks = Rng.isSeeded() ? popSize : popSize + Math.min(cores, popSize) - 1;
+		for (int i = 0; i < tasks; i++) {
+			SplittableRandom stream = Rng.split();
+			futures.add(constructions.submit(() -> {
+				Rng.bind(stream);
+				return new Individual(instance);
+			}));
+		}
+		try {
+			for (int i = 0; i < popSize; i++) {
+				ret[i] = Rng.isSeeded() ? futures.get(i).get() : constructions.take().get();
+				if (writer != null && ret[i].getPenalty() < bestPenalty) {
+					bestPenalty = ret[i].getPenalty();
+					writer.submit(ret[i]);
+				}
 			}
+		} catch (InterruptedException | ExecutionException e) {
+			throw new RuntimeException(e);
+		} finally {
+			for (Future<Individual> f : futures)
+				f.cancel(true);
+			pool.shutdownNow();
 		}
+		return ret;
 	}
 
 	public Integer getPopSize() {
@@ -67,20 +166,34 @@ public class Population {
 		return pop;
 	}
 	
+	//Iteration budget of the evolution. The operator balance, the gods interventions, the local search and the slot reordering follow
+	//the iterations instead of the time, so that a seeded run takes the same decisions on any machine. Time only stops the evolution earlier.
+	public void setBudget(int iterations) {
+		this.budget = iterations;
+		this.slotOrderer = new SlotOrderer(SLOTORDERROUNDS);
+	}
+	
 	private void adjustProbabilities() {
-		float passedTimePercentage = (float) 100/( (float) duration / ( (float) (System.nanoTime()-this.start) ) );	//compute percentage of elapsed time
-		System.out.println(passedTimePercentage+"% of the available time has passed");
+		float passedTimePercentage;
+		if (budget > 0)
+			passedTimePercentage = (float) 100*(iteratCnt-1)/budget;												//percentage of the iteration budget
+		else
+			passedTimePercentage = (float) 100/( (float) duration / ( (float) (System.nanoTime()-this.start) ) );	//compute percentage of elapsed time
+		if (Telemetry.isDebug())
+			Telemetry.debug(passedTimePercentage+"% of the available time has passed");
 																													//Starting from a fixed max amount of movable probability
 		float movingProbability = (float) this.maxMovingProbability*passedTimePercentage/100;						//move a portion of that amount proportionally to elapsed time
 		
 		this.genOpProbabilities[0] = this.crossover - movingProbability;											//from the crossover (most probable at beginning)
 		this.genOpProbabilities[1] = this.mutation + movingProbability;												//to mutation (most probable at end)
 		
-		System.out.println("");
-		System.out.println("New probabilities:");
-		System.out.println("	crossover: "+this.genOpProbabilities[0]);
-		System.out.println("	mutation: "+this.genOpProbabilities[1]);
-		System.out.println("");
+		if (Telemetry.isDebug()) {
+			Telemetry.debug("");
+			Telemetry.debug("New probabilities:");
+			Telemetry.debug("	crossover: "+this.genOpProbabilities[0]);
+			Telemetry.debug("	mutation: "+this.genOpProbabilities[1]);
+			Telemetry.debug("");
+		}
 		/*
 		try {																										
 			Thread.sleep(250);
@@ -88,128 +201,143 @@ public class Population {
 		*/
 	}
 	
-	private Individual[] hybridization(Individual[] offsprings) {
-		Individual[] hybridizedOffsprings = new Individual[individualsToUpdatePerIteration];						//new array with same size as offspings
-		int c = 0;
-		for(Individual i : offsprings) {
-			hybridizedOffsprings[c] = i.hybridize();																//new offsprings are the improved ones
-			c++;
+	//Local search on each offspring, in parallel like the reproduction if a pool is available. The offsprings are replaced by the improved ones.
+	private void hybridization(Individual[] offsprings) {
+		List<Callable<Void>> steps = new ArrayList<>();
+		for(int c = 0; c < offsprings.length; c++) {
+			int position = c;
+			steps.add(withOwnStream(() ->
+				offsprings[position] = offsprings[position].hybridize(bestImprovement, localSearchEvaluations, budget > 0 ? Long.MAX_VALUE : LOCALSEARCHTIME)));
 		}
-		return hybridizedOffsprings;
+		reproduce(steps);
 	}
 	
-	private int getSum(Map<Integer, Float> m) {
-		float sum = m.values().stream().reduce((float)0, (a, b) -> a+b);
-		return (int)(sum*1000);
+	//Initial probability of crossover (mutation has the rest), and the part of it moved to mutation by the end of the time
+	public void setOperatorBalance(float crossover, float maxMovingProbability) {
+		this.crossover = crossover;
+		this.mutation = 1 - crossover;
+		this.maxMovingProbability = maxMovingProbability;
 	}
 	
-	public List<Integer> selectNbyFitness(Map<Integer, Float> m, int n) {
-		
-		Map<Integer, Float> copy = new HashMap<>();							//create a copy that can be modified
-		for (Map.Entry<Integer,Float> entry : m.entrySet()) {
-			Float value = entry.getValue();
-			if (value < 0.001) value = (float) 0.001;
-			copy.put(entry.getKey(), value);
+	public void setMaxFlatIterations(int maxFlatIterations) {
+		this.maxFlatIterations = maxFlatIterations;
+	}
+	
+	//Switch on the hybridization of the offsprings (memetic algorithm), with a budget of maxEvaluations moves per offspring
+	public void setLocalSearch(boolean bestImprovement, int maxEvaluations) {
+		this.hybridize = true;
+		this.bestImprovement = bestImprovement;
+		this.localSearchEvaluations = maxEvaluations;
+	}
+	
+	//Wrap a reproduction step so that it draws from its own random stream, split here by the thread that plans the reproduction.
+	//This way the offsprings do not depend on which thread of the pool runs the step, nor on when.
+	private Callable<Void> withOwnStream(Runnable step) {
+		SplittableRandom stream = Rng.split();
+		return () -> {
+			SplittableRandom previous = Rng.bind(stream);
+			try {
+				step.run();
+			} finally {
+				Rng.bind(previous);
+			}
+			return null;
+		};
+	}
+	
+	//Run the reproduction steps, in parallel if a pool is available. Each step writes its own positions of the offsprings array.
+	private void reproduce(List<Callable<Void>> steps) {
+		try {
+			if (executor == null) {
+				for (Callable<Void> step : steps)
+					step.call();
+			} else {
+				for (Future<Void> f : executor.invokeAll(steps))
+					f.get();
+			}
+		} catch (ExecutionException e) {
+			throw new RuntimeException(e.getCause());
+		} catch (RuntimeException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new RuntimeException(e);
 		}
-		
-		Map<Integer, Float> orderedCopy =									//sorted version (descending value) --> give precedence to highest fitness ones
-			    copy.entrySet().stream()											
-			       .sorted(Map.Entry.comparingByValue(Comparator.reverseOrder()))
-			       .collect(Collectors.toMap(
-			    		   Map.Entry::getKey, Map.Entry::getValue, (e1,e2) -> e1, LinkedHashMap::new));
-		
-		List<Integer> res = new LinkedList<Integer>();						//result list with all selected elements
-		Random generator = new Random();									//random number generator
-		int i;
-		for(i=0; i<n; i++) {												//do the following N times:
-			int incremental = 0;											//accumulator for finding the key
-			int random = generator.nextInt(getSum(orderedCopy));			//get an int in range [0, sumOfFitnesses*1000-1]
-			/*
-			System.out.println("");
-			System.out.println(getSum(orderedCopy));
-			System.out.println(random);
-			*/
-			int j=0;
-			for(Map.Entry<Integer, Float> e : orderedCopy.entrySet()) {		//loop on the ordered entries
-				j++;
-				incremental+=(int)(e.getValue()*1000);						//increase by value until reach random number
-				if(incremental>random) {									//when found
-					res.add(e.getKey());									//add element to result list
-					orderedCopy.remove(e.getKey());							//remove element from map to avoid repetitions
-					break;
-				}
-				if(j==orderedCopy.size()) {									//it means it was picked the last element
-					res.add(e.getKey());									//add element to result list
-					orderedCopy.remove(e.getKey());							//remove element from map to avoid repetitions (might be useless)
-					break;
-				}
+	}
+	
+	//Select n positions in pop with the selection method of the population. Fitnesses under 0.001 count as 0.001, so everyone can be picked
+	public int[] selectNbyFitness(float[] fitness, int n) {
+		double[] weights = new double[fitness.length];
+		for (int i = 0; i < fitness.length; i++)
+			weights[i] = Math.max(fitness[i], 0.001);
+		return selection.select(weights, n, Rng.current());
+	}
+	
+	//Positions in pop of the n individuals with the lowest fitness, weakest first. Partial selection with a max-heap of the n weakest
+	//seen so far: O(popSize log n), the rest of the population is never sorted.
+	private int[] selectNWeakest(int n) {
+		int[] heap = new int[n];
+		int size = 0;
+		for (int i = 0; i < fitness.length; i++) {
+			if (size < n) {
+				heap[size] = i;
+				siftUp(heap, size++);
+			} else if (fitness[i] < fitness[heap[0]]) {
+				heap[0] = i;
+				siftDown(heap, 0, size);
 			}
 		}
-		/*
-		System.out.println("");
-		System.out.println(copy);
-		System.out.println(orderedCopy);
-		System.out.println(res);
-		*/
-		/*
-		if (res.size() != n) {
-			System.out.println("---THERES A PROBLEM IN YOUR FUNTION---");
-			System.out.println("n: "+n);
-			System.out.println("m: "+m);
-			System.out.println("copy: "+copy);
-			System.out.println("orderedCopy: "+orderedCopy);
-			System.out.println("res: "+res);
-			System.exit(1);
+		int[] ret = new int[size];
+		for (int k = size - 1; k >= 0; k--) {		//pop the strongest of the weakest first
+			ret[k] = heap[0];
+			heap[0] = heap[k];
+			siftDown(heap, 0, k);
 		}
-		*/
-		return res;
+		return ret;
 	}
 	
-	private void godsIntervention(Individual best) {
-		
-		// TODO: remove
-				System.out.println("Beginning of gods intervention.");
-				try {
-					Thread.sleep(1000);
-				}
-				catch (Exception e) {
-					System.out.println("Bratta");
-				}
-				//
-		Random r = new Random();
-		for (int i=0; i<pop.length; i++) {
-			Individual adam = pop[i].clone();
-			for (int j=0; j<r.nextInt(2)+1; j++)
-				adam = adam.desrupt();
-			for (int j=0; j<r.nextInt(3)+1; j++)
-				adam = adam.mutate();
-			pop[i] = adam;
+	private void siftUp(int[] heap, int k) {
+		while (k > 0 && fitness[heap[(k-1)/2]] < fitness[heap[k]]) {
+			int tmp = heap[k]; heap[k] = heap[(k-1)/2]; heap[(k-1)/2] = tmp;
+			k = (k-1)/2;
 		}
-		return;
 	}
 	
-	private void godsMercy(Individual best) {
-		int worst = 0;
-		float highPenalty = Float.MIN_VALUE;
-		for (int i=0; i<pop.length; i++) {
-			if (pop[i].getPenalty() > highPenalty) {
-				worst = i;
-				highPenalty = pop[i].getPenalty();
-			}
+	private void siftDown(int[] heap, int k, int size) {
+		while (2*k+1 < size) {
+			int c = 2*k+1;
+			if (c+1 < size && fitness[heap[c+1]] > fitness[heap[c]])
+				c++;
+			if (fitness[heap[k]] >= fitness[heap[c]])
+				return;
+			int tmp = heap[k]; heap[k] = heap[c]; heap[c] = tmp;
+			k = c;
 		}
-		pop[worst] = best;
+	}
+	
+	public void setSelection(Selection.Method method) {
+		this.selection = new Selection(method);
+	}
+	
+	//Diversification: perturb every individual except the elite one, harder the longer the search has been flat
+	private void godsIntervention(int elite) {
+		long begin = System.nanoTime();
+		float bestPenalty = pop[elite].getPenalty();
+		if (bestPenalty < interventionPenalty)
+			flatInterventions = 0;
+		else if (flatInterventions < GODMAXSTRENGTH-1)
+			flatInterventions++;
+		interventionPenalty = bestPenalty;
+		int strength = flatInterventions+1;
 		
-		/*
-		System.out.println("End of gods intervention.");
-		try {
-			Thread.sleep(5000);
-		}
-		catch (Exception e) {
-			System.out.println("Bratta");
+		SplittableRandom r = Rng.current();
+		for (int i=0; i<pop.length; i++) {
+			if (i == elite)
+				continue;
+			pop[i] = pop[i].perturb(strength*(r.nextInt(2)+1), strength*(r.nextInt(3)+1));
 		}
-		*/
-		
-		return;
+		interventions++;
+		Telemetry.info(String.format("Gods intervention %d: strength %d after %d flat iterations, best %.4f, %.2f ms",
+				interventions, strength, numberOfFlatIterations, bestPenalty, (System.nanoTime()-begin)/1e6));
 	}
 	
 	public void evolve() {
@@ -239,312 +367,307 @@ public class Population {
 		 */
 		
 		
-		System.out.println("");
-		System.out.println("--------------------");
-		System.out.println("Beginning evolution:");
+		Telemetry.debug("");
+		Telemetry.debug("--------------------");
+		Telemetry.info("Beginning evolution:");
 		
-
-		int crossoverImproves = 0, mutationImproves = 0;
-		int iteratCnt = 1;
-		float bestFit = -1;
-		Random rand = new Random();
+		evolve(Integer.MAX_VALUE);
+		if (writer != null)
+			writer.close();		//the best solution is on disk before returning
+	}
+	
+	//Run at most the given number of iterations of the evolutionary process, stopping earlier when time is up.
+	//It can be called repeatedly, e.g. by the island model between two migrations. Returns false when the process is over.
+	public boolean evolve(int iterations) {
+		if (!evolutionStarted) {
+			// 0. Initial data structure allocation:
+			evolutionStarted = true;
+			refreshFitness();
+			previousPenalty = bestPenalty2;
+			lastProgressTime = System.nanoTime();
+			lastProgressIteration = iteratCnt;
+		}
+		int first = iteratCnt;
+		boolean running = true;
+		for (int done = 0; done < iterations && running; done++)
+			running = (System.nanoTime()-start) < duration && (budget == 0 || iteratCnt <= budget) && iterate();
+		Telemetry.countIterations(iteratCnt-first);
+		boolean timeUp = (System.nanoTime()-start) >= duration;
+		if (timeUp && budget > 0 && iteratCnt <= budget && !budgetCut) {
+			budgetCut = true;
+			Telemetry.error(Thread.currentThread().getName() + ": time is up after " + (iteratCnt-1) + " of the " + budget + " iterations of the budget");
+		}
+		return running && !timeUp && (budget == 0 || iteratCnt <= budget);
+	}
+	
+	//Build the array of the fitnesses and the beginning statistics from scratch
+	private void refreshFitness() {
+		worstPenalty = (float) Arrays.stream(pop).mapToDouble(Individual::getPenalty).average().getAsDouble();
+		fitness = new float[popSize];
+		int bestOfPop = evaluateFitness();
+		avgFit1 = avgFitness;
+		bestFit1 = bestFitness;
+		bestPenalty2 = pop[bestOfPop].getPenalty();
+	}
+	
+	//Fitness evaluation pass: the fitness of each individual is computed once per generation into the fitness array, and the statistics,
+	//selection and replacement read it from there. Sets avgFitness and bestFitness, returns the position of the best individual.
+	private int evaluateFitness() {
+		int bestOfPop = 0;
+		float sum = 0;
+		for (int i = 0; i < popSize; i++) {
+			fitness[i] = pop[i].getFitness(worstPenalty);
+			sum += fitness[i];
+			if (fitness[i] > fitness[bestOfPop])
+				bestOfPop = i;
+		}
+		avgFitness = sum/popSize;
+		bestFitness = fitness[bestOfPop];
+		return bestOfPop;
+	}
+	
+	//One iteration of the evolutionary process. Returns false if the process must stop.
+	private boolean iterate() {
+		//WARNING: the used fitness array is:
+			//at first iteration --> the one created above the loop start
+			//at next iterations --> the one recreated at the end of the loop (before printing results)
+		if (Telemetry.isDebug()) {
+			Telemetry.debug("Iteration: "+iteratCnt);
+			Telemetry.debug("");
+			Telemetry.debug("Beginning statistics:");
+			Telemetry.debug("	best fitness: "+bestFit1);
+			Telemetry.debug("        lowest penalty: "+bestPenalty2);
+			Telemetry.debug("	average fitness: "+avgFit1);
+			Telemetry.debug("");
+		}
 		
-		boolean godsInterventionActive=false;
-		int numberOfFlatIterations = 0;
-		Individual globalBest=null;
-		Individual bestPrinted = null;
-		float previousPenalty = (float) Float.MAX_VALUE;
+		//1. Select individuals for reproduction
+		int[] parents = selectNbyFitness(fitness, individualsToUpdatePerIteration);	//positions in pop
 		
-		// 0. Initial data structure allocation:
-		float avgFit1=(float) 0.0, bestFit1=(float) 0.0, bestPenalty1 = (float) 0.0, bestPenalty2;
-		Map<Integer,Float> fitnessMap = new HashMap<>(); 								// build a map to store couples: individualId - fitness
-		OptionalDouble worstOptional = Arrays.stream(pop).map(Individual::getPenalty).mapToDouble(Double::new).average();
-		float worstPenalty = (float) worstOptional.getAsDouble();
-		for (Individual i : pop) {
-			fitnessMap.put(i.getId(), i.getFitness(worstPenalty));
-			avgFit1 += i.getFitness(worstPenalty);
-			if (i.getFitness(worstPenalty)>bestFit1) {
-				bestFit1=i.getFitness(worstPenalty);
-				bestPenalty1 = i.getPenalty();
+
+		float tmpMinPen = Float.MAX_VALUE;
+		for (Individual i : pop)
+			if (i.getPenalty()<tmpMinPen) {
+				tmpMinPen=i.getPenalty();
 			}
-		}
-		bestPenalty2 = bestPenalty1;
-		previousPenalty = bestPenalty2;
-		avgFit1/=popSize;
+		previousPenalty = tmpMinPen;
 		
-		//System.out.println(fitnessMap);
-					
-		while(iteratCnt>0 && (System.nanoTime()-start)<duration) {							//Endless loop - TODO: remove time constraint
-			System.out.println("Iteration: "+iteratCnt);
-			System.out.println("");
-			
-			//WARNING: the used fitnessMap is:
-				//at first iteration --> the one created above the loop start
-				//at next iterations --> the one recreated at the end of the loop (before printing results)
-			System.out.println("Beginning statistics:");
-			System.out.println("	best fitness: "+bestFit1);
-			System.out.println("        lowest penalty: "+bestPenalty2);
-			System.out.println("	average fitness: "+avgFit1);
-			System.out.println("");
-			
-			//1. Select individuals for reproduction
-			List<Integer> parents = selectNbyFitness(fitnessMap, individualsToUpdatePerIteration);
-			
-
-			float tmpMinPen = Float.MAX_VALUE;
-			for (Individual i : pop)
-				if (i.getPenalty()<tmpMinPen) {
-					tmpMinPen=i.getPenalty();
-				}
-			previousPenalty = tmpMinPen;
-			
-			//2. Reproduction
-			this.adjustProbabilities();													//Rebalance probabilities according to elapsed time
-			int r = rand.nextInt(100) + 1;												//Generate random number in range [1,100]
-			Individual[] offsprings = new Individual[individualsToUpdatePerIteration];	//the amount of generated offsprings is the same of the substituted ones
-			
-			int reproducedElem = 0;														//keep count of how many reproduced up to now
-			boolean crossoverFlag = false;												//crossover takes two elements --> this is needed to skip an element
-			int tmpElem = -1;															//to store temporarily an element before crossover
-			boolean mutationFlag = false, improved = false;												// for statistics
-			
-			//System.out.println("Reproducing by: ");
-			for (int i : parents){									//loop on the IDs of the individuals to reproduce
-				//System.out.println("CURRENT POPULATION: ");
-				//for (Individual k : pop) {
-				//	System.out.println(k.getId());
-				//}
-				if (crossoverFlag == true) {											//intercept this loop if crossover must be done
-					Individual A=null;
-					Individual B=null;
-					for (Individual ind : pop) {										//find the two individuals
-						//System.out.println("Looking for "+i+" and "+tmpElem+" and found "+ind.getId());
-						if (ind.getId()==i) {
-							A = ind;
-							//System.out.println("found A at "+i);
-						}
-						if (ind.getId()==tmpElem) {
-							B = ind;
-							//System.out.println("found B at "+tmpElem);
-						}
-					}
-					
-					List<Individual> l = A.crossover(B, (float)(rand.nextInt(10) + 1)/10);
-					
-					reproducedElem++;													//mark this element as reproduced
-					tmpElem=0;															//reused just as a counter
-					for(Individual off : l) {											//copy returned list into the array of the offsprings
-						offsprings[reproducedElem-1-tmpElem] = off;
-						tmpElem++;
-					}
-					
-					crossoverFlag=false;												//mark crossover as happened
-					//System.out.println("	crossover (end)");
-					continue;															//go to next element
-				}
-																						//Pick gen. op according to generated number and probabilities
-				if (r<=genOpProbabilities[0]*100 && (individualsToUpdatePerIteration-reproducedElem)>1) { //crossover can be one if there are at least 2 elements to reproduce
-					//System.out.println("	crossover (start)");
-					crossoverFlag = true;												//flag that crossover is picked, setting up and ready to happen
-					tmpElem=i;															//store the ID of this individual
-					reproducedElem++;													//mark it as reproduced
-					continue;															//go to next element
-				} else {
-					//System.out.println("	mutation");
-					mutationFlag = true;
-					Individual A=null;
-					for (Individual ind : pop) {										//find the two individuals
-						//System.out.println("Looking for "+i+" and found "+ind.getId());
-						if (ind.getId()==i) {
-							A = ind;
-							//System.out.println("found A at "+i);
-							break;
-						}
-					}
-					int m = rand.nextInt(3);
+		//2. Reproduction
+		this.adjustProbabilities();													//Rebalance probabilities according to elapsed time
+		int r = Rng.current().nextInt(100) + 1;												//Generate random number in range [1,100]
+		Individual[] offsprings = new Individual[individualsToUpdatePerIteration];	//the amount of generated offsprings is the same of the substituted ones
+		
+		int reproducedElem = 0;														//keep count of how many reproduced up to now
+		boolean crossoverFlag = false;												//crossover takes two elements --> this is needed to skip an element
+		int tmpElem = -1;															//to store temporarily an element (its position) before crossover
+		boolean mutationFlag = false, improved = false;												// for statistics
+		List<Callable<Void>> steps = new ArrayList<>();								//the genetic operators are planned here and applied all together below
+		AtomicBoolean infeasible = new AtomicBoolean(false);
+		
+		//System.out.println("Reproducing by: ");
+		for (int i : parents){									//loop on the positions of the individuals to reproduce
+			if (crossoverFlag == true) {											//intercept this loop if crossover must be done
+				Individual parentA = pop[i], parentB = pop[tmpElem];
+				float percentage = (float)(Rng.current().nextInt(10) + 1)/10;
+				reproducedElem++;													//mark this element as reproduced
+				int position = reproducedElem-1;
+				steps.add(withOwnStream(() -> {
+					List<Individual> l = parentA.crossover(parentB, percentage);
+					for(int k = 0; k < l.size(); k++)								//copy returned list into the array of the offsprings
+						offsprings[position-k] = l.get(k);
+				}));
+				
+				crossoverFlag=false;												//mark crossover as happened
+				//System.out.println("	crossover (end)");
+				continue;															//go to next element
+			}
+																					//Pick gen. op according to generated number and probabilities
+			if (r<=genOpProbabilities[0]*100 && (individualsToUpdatePerIteration-reproducedElem)>1) { //crossover can be one if there are at least 2 elements to reproduce
+				//System.out.println("	crossover (start)");
+				crossoverFlag = true;												//flag that crossover is picked, setting up and ready to happen
+				tmpElem=i;															//store the position of this individual
+				reproducedElem++;													//mark it as reproduced
+				continue;															//go to next element
+			} else {
+				//System.out.println("	mutation");
+				mutationFlag = true;
+				int m = Rng.current().nextInt(4);
+				Individual parent = pop[i];
+				int position = reproducedElem;
+				steps.add(withOwnStream(() -> {
 					switch (m) {
 					case 0:
-						offsprings[reproducedElem]=A.mutate();
+						offsprings[position]=parent.mutate();
 						break;
 					case 1:
-						offsprings[reproducedElem]=A.swapSlots();
+						offsprings[position]=parent.swapSlots();
 						break;
 					case 2:
-						offsprings[reproducedElem]=A.desrupt();
+						offsprings[position]=parent.desrupt();
+						break;
+					case 3:
+						offsprings[position]=parent.kempeMutate();
 						break;
 					}
-					if(!offsprings[reproducedElem].isFeasible()) {
-						System.out.println("Warning: non feasible solution!");
-						System.out.print(offsprings[reproducedElem-1].getAssignment());
-						return;
+					if(!offsprings[position].isFeasible()) {
+						Telemetry.info("Warning: non feasible solution!");
+						if (Telemetry.isDebug())
+							Telemetry.debug(Arrays.toString(offsprings[position].getAssignment()));
+						infeasible.set(true);
 					}
-					reproducedElem++;
-				}
+				}));
+				reproducedElem++;
 			}
-					
-			//Hybridization step:
-			//offsprings = this.hybridization(offsprings);	//TODO: remove this from this class and from Individual
-			
-			
-			//3. Population updating
-			Map<Integer, Float> weakestFitnessMap =										//Map with the elements to substitute
-				    fitnessMap.entrySet().stream()
-				       .sorted(Map.Entry.comparingByValue()) 	
-				       .limit(individualsToUpdatePerIteration)
-				       .collect(Collectors.toMap(
-				    		   Map.Entry::getKey, Map.Entry::getValue, (e1,e2) -> e1, LinkedHashMap::new));
-			//System.out.println(weakestFitnessMap);
-
+		}
+		reproduce(steps);
+		if (infeasible.get())
+			return false;
+				
+		//Hybridization step:
+		if (hybridize)
+			this.hybridization(offsprings);
+		
+		
+		//3. Population updating
+		int[] weakest = selectNWeakest(individualsToUpdatePerIteration);			//positions of the elements to substitute
+		for (int k = 0; k < weakest.length; k++)
+			pop[weakest[k]] = offsprings[k];											//remove it and substitute it with an offspring
 
-			int substituted = 0;																		//count how many inserted
-			for (int i : weakestFitnessMap.keySet()) {													//loop on the IDs of elements to substitute (to remove)
-				int counter = 0;																		//count how many checked
-				for (Individual ind : pop) {															//look for the individuals to remove
-					if(ind.getId()==i) {																//if the current one has to be removed
-						pop[counter]=offsprings[substituted];											//remove it and substitute it with an offspring
-						substituted++;
-						break;
-					}	
-					counter++;
-				}
-			}
+		
+		int bestOfPop = evaluateFitness();
+		float avgFit2 = avgFitness, bestFit2 = bestFitness;
+		bestPenalty2 = pop[bestOfPop].getPenalty();
+		improved = bestFit2 > 0;
+		if (improved)
+			if (mutationFlag) mutationImproves++;
+			else crossoverImproves++;
+		if (Telemetry.isDebug()) {
+			Telemetry.debug("Ending statistics:");
+			Telemetry.debug("	best fitness improvement: "+(bestFit2-bestFit1));
+			Telemetry.debug("	average fitness improvement: "+(avgFit2-avgFit1));
+			Telemetry.debug("    Improvements per GA operator: crossover="+crossoverImproves+ " | mutation="+mutationImproves);
+			Telemetry.debug("");
+		}
+		
+		
+		//God's intervention is put here because it is just before the fitness refresh
+		if (previousPenalty!=bestPenalty2 && godsInterventionActive==false) {
+			numberOfFlatIterations = 0;
+		} else if(godsInterventionActive==false) {
+			numberOfFlatIterations++;
+		}
+		
 
-			
-			float avgFit2=(float) 0.0, bestFit2=(float) 0.0;
-			for (Individual i : pop) {
-				avgFit2 += i.getFitness(worstPenalty);
-				if (i.getFitness(worstPenalty)>bestFit2) {
-					bestFit2=i.getFitness(worstPenalty);
-					bestPenalty2 = i.getPenalty();
-					improved = true;
+		boolean timeToRecover = budget > 0 ? budget-iteratCnt > maxFlatIterations			//the intervention lasts maxFlatIterations
+				: duration-(System.nanoTime()-start) > TimeUnit.SECONDS.toNanos(GODTIMELIMIT);
+		if (numberOfFlatIterations>=maxFlatIterations && timeToRecover) {
+			int elite = -1;
+			godsInterventionActive = true;
+			for (int i=0; i<pop.length; i++) {
+				if(pop[i].getPenalty()==bestPenalty2) {
+					elite = i;
 				}
 			}
-			if (improved)
-				if (mutationFlag) mutationImproves++;
-				else crossoverImproves++;
-			avgFit2/=popSize;
-			System.out.println("Ending statistics:");
-			System.out.println("	best fitness improvement: "+(bestFit2-bestFit1));
-			System.out.println("	average fitness improvement: "+(avgFit2-avgFit1));
-			System.out.println("    Improvements per GA operator: crossover="+crossoverImproves+ " | mutation="+mutationImproves);
-			System.out.println("");
-			
-			
-			//God's intervention is put here because it is just before the fitnessMap refresh
-			if (previousPenalty!=bestPenalty2 && godsInterventionActive==false) {
+			if (elite<0) {
+				//emergency measures (shouldn't happen, it's just for code robustness)
+				godsInterventionActive = false;
 				numberOfFlatIterations = 0;
-			} else if(godsInterventionActive==false) {
-				numberOfFlatIterations++;
+			} else {
+				godsIntervention(elite);
+				bestOfPop = evaluateFitness();
+				avgFit2 = avgFitness;
+				bestFit2 = bestFitness;
+				bestPenalty2 = pop[bestOfPop].getPenalty();
 			}
-			
-
-			if (numberOfFlatIterations>=MAXFLATITERATIONS && duration-(System.nanoTime()-start)>TimeUnit.SECONDS.toNanos(GODTIMELIMIT)) {
-				globalBest=null;
-				godsInterventionActive = true;
-				for (Individual ind : pop) {
-					if(ind.getPenalty()==bestPenalty2) {
-						globalBest = ind.clone();
-					}
-				}
-				if (globalBest==null) {
-					//emergency measures (shouldn't happen, it's just for code robustness)
-					godsInterventionActive = false;
-					numberOfFlatIterations = 0;
-				} else {
-					godsIntervention(globalBest);
-					avgFit2=(float) 0.0; bestFit2=(float) 0.0;
-					for (Individual i : pop) {
-						avgFit2 += i.getFitness(worstPenalty);
-						if (i.getFitness(worstPenalty)>bestFit2) {
-							bestFit2=i.getFitness(worstPenalty);
-							bestPenalty2 = i.getPenalty();
-						}
-					}
-				}
-			}
-			
-			if(godsInterventionActive) {
-				numberOfFlatIterations--;
-				if(numberOfFlatIterations<=0) {
-					godsInterventionActive = false;
-					numberOfFlatIterations = 0;
-					//godsMercy(globalBest);
-				}
-			}
-			
-			
-			// "0". Data structure refresh:
-			fitnessMap = new HashMap<>(); 								// re-build a map to store couples: individualId - fitness (updated with new individuals)
-
-			for (Individual i : pop) {
-				fitnessMap.put(i.getId(), i.getFitness(worstPenalty));
-			}
-			avgFit1 = avgFit2;											//beginning statistics at next iteration = end statistics of this iteration
-			bestFit1=bestFit2;
-			
-			//4. Save results
-			int keyOfBestSol = fitnessMap.entrySet().stream().max((entry1, entry2) -> entry1.getValue() > entry2.getValue() ? 1 : -1).get().getKey();	//Find optimal solution
-
-			for (Individual ind : pop) {
-				if (ind.getId()==keyOfBestSol) {
-					
-					
-					if (bestPrinted == null) {
-						//print
-						try {
-							System.out.println("Lowest penalty: " + ind.getPenalty());
-							System.out.println("Printing results to: "+this.outputFile);
-							ind.printIndividual(this.outputFile);
-						} catch (IOException e) {
-							System.out.println("FAILED PRINTING RESULTS! R.I.P.");
-							e.printStackTrace();
-						}
-						//update bestPrinted
-						bestPrinted = ind.clone();
-					} else {
-						//check if what we try to print is better than what we printed
-						if(ind.getPenalty()<bestPrinted.getPenalty()) {
-							//print
-							try {
-								System.out.println("Lowest penalty: " + ind.getPenalty());
-								System.out.println("Printing results to: "+this.outputFile);
-								ind.printIndividual(this.outputFile);
-							} catch (IOException e) {
-								System.out.println("FAILED PRINTING RESULTS! R.I.P.");
-								e.printStackTrace();
-							}
-							//update bestPrinted
-							bestPrinted = ind.clone();
-						}
-					}
-					/*
-					
-					if(ind.getFitness(worstPenalty) > bestFit) {
-						try {
-							System.out.println("Lowest penalty: " + ind.getPenalty());
-							System.out.println("Printing results to: "+this.outputFile);
-							ind.printIndividual(this.outputFile);																							//print it
-						} catch (IOException e) {
-							System.out.println("FAILED PRINTING RESULTS! R.I.P.");
-							e.printStackTrace();
-						}
-						bestFit = ind.getFitness(worstPenalty);
-					}
-					*/
-					
-					break;
-				}
+		}
+		
+		if(godsInterventionActive) {
+			numberOfFlatIterations--;
+			if(numberOfFlatIterations<=0) {
+				godsInterventionActive = false;
+				numberOfFlatIterations = 0;
 			}
-			
-			worstOptional = Arrays.stream(pop).map(Individual::getPenalty).mapToDouble(Double::new).average();
-			worstPenalty = (float) worstOptional.getAsDouble();
-			
-			iteratCnt++;
-			System.out.println("");
-			System.out.println("--------------------");
-			System.out.println("");
 		}
 		
+		//Intensification: reorder the slots of the best individual, which keeps it feasible and can only lower its penalty
+		if (iteratCnt % SLOTORDERINTERVAL == 0) {
+			int bestIndex = 0;
+			for (int i = 1; i < pop.length; i++)
+				if (pop[i].getPenalty() < pop[bestIndex].getPenalty())
+					bestIndex = i;
+			pop[bestIndex] = pop[bestIndex].reorderSlots(slotOrderer);
+			fitness[bestIndex] = pop[bestIndex].getFitness(worstPenalty);		//the only fitness changed
+			if (fitness[bestIndex] > fitness[bestOfPop])
+				bestOfPop = bestIndex;
+		}
+		
+		// "0". Data structure refresh: the fitness array is already up to date
+		avgFit1 = avgFit2;											//beginning statistics at next iteration = end statistics of this iteration
+		bestFit1=bestFit2;
+		
+		//4. Save results
+		Individual ind = pop[bestOfPop];											//Find optimal solution
+		if (bestPrinted == null || ind.getPenalty()<bestPrinted.getPenalty()) {		//check if it is better than what we printed
+			Telemetry.solution(ind.getPenalty());		//when it is found, also in an island or a portfolio engine, which do not write
+			saveResult(ind);
+			bestPrinted = ind.clone();
+		}
+		
+		worstPenalty = (float) Arrays.stream(pop).mapToDouble(Individual::getPenalty).average().getAsDouble();
+		
+		iteratCnt++;
+		Telemetry.debug("");
+		Telemetry.debug("--------------------");
+		Telemetry.debug("");
+		if (Telemetry.isInfo() && System.nanoTime()-lastProgressTime >= Telemetry.PROGRESSINTERVAL)
+			progress();
+		return true;
+	}
+	
+	//Progress line: iterations per second since the previous line, best penalty found and average penalty of the population
+	private void progress() {
+		long now = System.nanoTime();
+		double iterationsPerSecond = (iteratCnt-lastProgressIteration) * 1e9 / (now-lastProgressTime);
+		double averagePenalty = Arrays.stream(pop).mapToDouble(Individual::getPenalty).average().getAsDouble();
+		Telemetry.progress(now-start, iteratCnt-1, iterationsPerSecond, bestPrinted.getPenalty(), averagePenalty);
+		lastProgressTime = now;
+		lastProgressIteration = iteratCnt;
+	}
+	
+	private void saveResult(Individual ind) {
+		if (writer == null)
+			return;
+		if (Telemetry.isDebug()) {
+			Telemetry.debug("Lowest penalty: " + ind.getPenalty());
+			Telemetry.debug("Printing results to: "+this.outputFile);
+		}
+		writer.submit(ind);
+	}
+	
+	//Best individual found so far, null before the first iteration
+	public Individual getBestFound() {
+		return bestPrinted;
+	}
+	
+	//Copies, with new IDs, of the n best individuals of the population (the emigrants of the island model)
+	public Individual[] getBest(int n) {
+		Individual[] sorted = pop.clone();
+		Arrays.sort(sorted, Comparator.comparingDouble(Individual::getPenalty));
+		Individual[] ret = new Individual[Math.min(n, sorted.length)];
+		for (int i = 0; i < ret.length; i++)
+			ret[i] = sorted[i].duplicate();
+		return ret;
+	}
 	
+	//Replace the worst individuals of the population with the given ones (the immigrants of the island model)
+	public void immigrate(Individual[] migrants) {
+		Integer[] order = new Integer[pop.length];
+		for (int i = 0; i < order.length; i++)
+			order[i] = i;
+		Arrays.sort(order, Comparator.comparingDouble((Integer i) -> pop[i].getPenalty()).reversed());
+		for (int i = 0; i < migrants.length && i < pop.length; i++)
+			pop[order[i]] = migrants[i];
+		if (evolutionStarted)
+			refreshFitness();
 	}
 }
@@ -0,0 +1,120 @@
+package pack;
+
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+
+// Several differently configured GA populations racing on their own threads on the same instance, within the same time budget.
+// Every SHAREINTERVAL iterations each engine offers its best to the shared incumbent; with restarts on, an engine whose best is worse
+// than the incumbent takes a copy of it in place of its worst individual. In a seeded run the engines share in lockstep, at a barrier,
+// so that what they offer and receive does not depend on their relative speed.
+public class Portfolio {
+	final private int SHAREINTERVAL = 100;
+
+	// Settings of an engine
+	private static final class Configuration {
+		final int popSize;
+		final float percentage;			//% of the population substituted per iteration
+		final float crossover;			//initial crossover probability
+		final float maxMovingProbability;	//part of it moved to mutation by the end
+		final int maxFlatIterations;	//before a godsIntervention
+		final String localSearch;		//first or best improvement, null if off
+
+		Configuration(int popSize, float percentage, float crossover, float maxMovingProbability, int maxFlatIterations, String localSearch) {
+			this.popSize = popSize;
+			this.percentage = percentage;
+			this.crossover = crossover;
+			this.maxMovingProbability = maxMovingProbability;
+			this.maxFlatIterations = maxFlatIterations;
+			this.localSearch = localSearch;
+		}
+	}
+
+	// Reused in order when there are more engines than configurations
+	private static final Configuration[] CONFIGURATIONS = {
+		new Configuration(10, 90, 0.9f, 0.9f, 750, null),		//the default of Main
+		new Configuration(30, 50, 0.7f, 0.5f, 1500, null),		//bigger, slower to converge
+		new Configuration(6, 80, 0.5f, 0.4f, 300, "first"),		//small memetic
+		new Configuration(20, 90, 0.9f, 0.9f, 750, "best"),
+	};
+
+	private Population[] engines;
+	private Incumbent incumbent;
+	private SolutionWriter writer;
+	private boolean restart;
+	private boolean[] stopped;			//engines over, in lockstep
+	private volatile boolean over = false;
+
+	public Portfolio(int nEngines, Instance instance, long start, long duration, String outputFile, boolean restart) {
+		this.writer = new SolutionWriter(outputFile+"_DMOgroup07.sol", instance);
+		this.incumbent = new Incumbent(writer);
+		this.restart = restart;
+		this.engines = new Population[nEngines];
+		for (int i = 0; i < nEngines; i++) {
+			Configuration c = CONFIGURATIONS[i % CONFIGURATIONS.length];
+			engines[i] = new Population(c.popSize, instance, c.percentage, start, duration, null, 1);	//only the incumbent writes
+			engines[i].setOperatorBalance(c.crossover, c.maxMovingProbability);
+			engines[i].setMaxFlatIterations(c.maxFlatIterations);
+			if (c.localSearch != null)
+				engines[i].setLocalSearch(c.localSearch.equals("best"), 20000);
+			for (Individual ind : engines[i].getPopulation())		//a solution is on disk before the race starts
+				incumbent.offer(ind.duplicate());
+		}
+	}
+
+	public void setBudget(int iterations) {
+		for (Population engine : engines)
+			engine.setBudget(iterations);
+	}
+
+	public void run() {
+		boolean lockstep = Rng.isSeeded();
+		CyclicBarrier barrier = lockstep ? new CyclicBarrier(engines.length, this::share) : null;
+		stopped = new boolean[engines.length];
+		Thread[] threads = new Thread[engines.length];
+		for (int i = 0; i < engines.length; i++) {
+			Population engine = engines[i];
+			int index = i;
+			threads[i] = new Thread(Rng.withOwnStream(() -> {
+				boolean running = true;
+				while (running) {
+					running = engine.evolve(SHAREINTERVAL);
+					Individual best = engine.getBestFound(), shared;
+					if (lockstep) {
+						stopped[index] = !running;
+						try {
+							barrier.await();
+						} catch (InterruptedException | BrokenBarrierException e) {
+							e.printStackTrace();
+							return;
+						}
+						running = !over;
+					} else if (best != null)
+						incumbent.offer(best);
+					if (running && restart && (shared = incumbent.get()) != null && (best == null || shared.getPenalty() < best.getPenalty()))
+						engine.immigrate(new Individual[] {shared.duplicate()});
+				}
+			}), "engine-" + i);
+			threads[i].start();
+		}
+		for (Thread t : threads)
+			try {
+				t.join();
+			} catch (InterruptedException e) {
+				e.printStackTrace();
+			}
+		writer.close();
+		Telemetry.info("Portfolio best penalty: " + incumbent.get().getPenalty());
+	}
+
+	// Barrier action of the lockstep: the engines offer their best in a fixed order, and all stop together
+	private void share() {
+		for (int i = 0; i < engines.length; i++) {
+			Individual best = engines[i].getBestFound();
+			if (best != null)
+				incumbent.offer(best);
+			if (stopped[i])
+				over = true;
+		}
+	}
+
+}
@@ -0,0 +1,56 @@
+package pack;
+
+import java.util.SplittableRandom;
+
+// Source of randomness of the current thread. Each thread draws from its own SplittableRandom, so no random state is shared between threads.
+// Work handed to a thread pool binds a stream split beforehand by the submitting thread, which keeps the results independent of the scheduling.
+// After seed(s) every stream descends from s, so a run repeats the same random draws given the same number of threads.
+public final class Rng {
+	private static SplittableRandom root = new SplittableRandom();		//parent of the streams of the threads that never bound one
+	private static boolean seeded = false;
+	private static final ThreadLocal<SplittableRandom> streams = ThreadLocal.withInitial(Rng::fromRoot);
+
+	private Rng() {
+	}
+
+	private static synchronized SplittableRandom fromRoot() {
+		return root.split();
+	}
+
+	// Make the run reproducible: the current thread, normally main, becomes the root of every other stream
+	public static synchronized void seed(long seed) {
+		root = new SplittableRandom(seed);
+		seeded = true;
+		streams.set(root.split());
+	}
+
+	public static synchronized boolean isSeeded() {
+		return seeded;
+	}
+
+	public static SplittableRandom current() {
+		return streams.get();
+	}
+
+	// New independent stream, to be bound by another thread
+	public static SplittableRandom split() {
+		return streams.get().split();
+	}
+
+	// Runnable for a new thread, bound to a stream split now by the creating thread
+	public static Runnable withOwnStream(Runnable task) {
+		SplittableRandom stream = split();
+		return () -> {
+			bind(stream);
+			task.run();
+		};
+	}
+
+	// Make stream the source of randomness of the current thread, returning the previous one
+	public static SplittableRandom bind(SplittableRandom stream) {
+		SplittableRandom previous = streams.get();
+		streams.set(stream);
+		return previous;
+	}
+
+}
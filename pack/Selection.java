@@ -0,0 +1,148 @@
+package pack;
+
+import java.util.SplittableRandom;
+
+// Selection of individuals for reproduction, given the fitness of each individual (the weights). All the methods return positions in
+// the weight array and run in O(popSize + n log popSize) at most, so selection stays cheap also with very large populations.
+public class Selection {
+	public enum Method {
+		ROULETTE,		// roulette wheel without replacement, on a Fenwick tree: O(log popSize) per draw
+		ALIAS,			// roulette wheel with replacement, Vose's alias method: O(1) per draw
+		TOURNAMENT,		// best of TOURNAMENTSIZE random individuals, without replacement
+		SUS				// stochastic universal sampling: n equally spaced pointers on the wheel
+	}
+
+	public static final int TOURNAMENTSIZE = 3;
+
+	private Method method;
+
+	public Selection(Method method) {
+		this.method = method;
+	}
+
+	public Method getMethod() {
+		return method;
+	}
+
+	// Select n individuals (n <= weights.length for the methods without replacement)
+	public int[] select(double[] weights, int n, SplittableRandom rng) {
+		switch (method) {
+		case ALIAS:
+			return alias(weights, n, rng);
+		case TOURNAMENT:
+			return tournament(weights, n, rng);
+		case SUS:
+			return stochasticUniversalSampling(weights, n, rng);
+		default:
+			return roulette(weights, n, rng);
+		}
+	}
+
+	// Fenwick tree over the weights: tree[i] is the sum of the weights in (i - lowbit(i), i], 1-based. A drawn individual gets weight 0.
+	public static int[] roulette(double[] weights, int n, SplittableRandom rng) {
+		int m = weights.length;
+		double[] w = weights.clone(), tree = new double[m + 1];
+		double total = 0;
+		for (int i = 1; i <= m; i++) {		// O(m) construction
+			tree[i] += w[i - 1];
+			total += w[i - 1];
+			int parent = i + (i & -i);
+			if (parent <= m)
+				tree[parent] += tree[i];
+		}
+		int top = Integer.highestOneBit(Math.max(m, 1));
+		int[] ret = new int[n];
+		for (int k = 0; k < n; k++) {
+			double u = rng.nextDouble() * total;
+			int pos = 0;		// largest position whose prefix sum is <= u
+			for (int step = top; step > 0; step >>= 1)
+				if (pos + step <= m && tree[pos + step] <= u) {
+					pos += step;
+					u -= tree[pos];
+				}
+			if (pos >= m || w[pos] <= 0)		// rounding errors: fall back to the last individual left
+				for (pos = m - 1; pos > 0 && w[pos] <= 0; pos--);
+			ret[k] = pos;
+			total -= w[pos];
+			for (int i = pos + 1; i <= m; i += i & -i)
+				tree[i] -= w[pos];
+			w[pos] = 0;
+		}
+		return ret;
+	}
+
+	// Vose's alias method: each column of the table holds an individual with probability prob[i], and alias[i] otherwise
+	public static int[] alias(double[] weights, int n, SplittableRandom rng) {
+		int m = weights.length;
+		double[] prob = new double[m];
+		int[] alias = new int[m], small = new int[m], large = new int[m];
+		int nSmall = 0, nLarge = 0;
+		double total = 0;
+		for (double w : weights)
+			total += w;
+		for (int i = 0; i < m; i++) {
+			prob[i] = weights[i] * m / total;
+			if (prob[i] < 1)
+				small[nSmall++] = i;
+			else
+				large[nLarge++] = i;
+		}
+		while (nSmall > 0 && nLarge > 0) {
+			int s = small[--nSmall], l = large[--nLarge];
+			alias[s] = l;
+			prob[l] += prob[s] - 1;
+			if (prob[l] < 1)
+				small[nSmall++] = l;
+			else
+				large[nLarge++] = l;
+		}
+		while (nLarge > 0)
+			prob[large[--nLarge]] = 1;
+		while (nSmall > 0)		// only because of rounding errors
+			prob[small[--nSmall]] = 1;
+
+		int[] ret = new int[n];
+		for (int k = 0; k < n; k++) {
+			int column = rng.nextInt(m);
+			ret[k] = (rng.nextDouble() < prob[column]) ? column : alias[column];
+		}
+		return ret;
+	}
+
+	// Each winner leaves the pool of the individuals that can still be drawn
+	public static int[] tournament(double[] weights, int n, SplittableRandom rng) {
+		int m = weights.length;
+		int[] pool = new int[m];
+		for (int i = 0; i < m; i++)
+			pool[i] = i;
+		int[] ret = new int[n];
+		for (int k = 0; k < n; k++) {
+			int left = m - k, winner = rng.nextInt(left);
+			for (int t = 1; t < TOURNAMENTSIZE; t++) {
+				int c = rng.nextInt(left);
+				if (weights[pool[c]] > weights[pool[winner]])
+					winner = c;
+			}
+			ret[k] = pool[winner];
+			pool[winner] = pool[left - 1];
+		}
+		return ret;
+	}
+
+	// One random offset, then n pointers at distance total/n: an individual is selected about weight*n/total times
+	public static int[] stochasticUniversalSampling(double[] weights, int n, SplittableRandom rng) {
+		double total = 0;
+		for (double w : weights)
+			total += w;
+		double distance = total / n, pointer = rng.nextDouble() * distance, cumulative = weights[0];
+		int[] ret = new int[n];
+		int i = 0;
+		for (int k = 0; k < n; k++, pointer += distance) {
+			while (cumulative <= pointer && i < weights.length - 1)
+				cumulative += weights[++i];
+			ret[k] = i;
+		}
+		return ret;
+	}
+
+}
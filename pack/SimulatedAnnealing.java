@@ -0,0 +1,144 @@
+package pack;
+
+import java.util.SplittableRandom;
+
+// Single-solution alternative to the GA. Starts from a constructed individual and applies random feasible moves: an exam to one of its
+// acceptable slots, a Kempe chain, or the exchange of two whole slots. Each move is priced by its penalty delta, and a worsening move is
+// accepted with probability exp(-delta/T). The temperature falls geometrically from T0 to TEND over the time budget, or over the
+// budget of moves if there is one, as in a seeded run.
+public class SimulatedAnnealing {
+	final private double INITIALACCEPTANCE = 0.3;	//probability of accepting an average worsening move at the beginning
+	final private double TEND = 0.5;				//final temperature, in students: a pair of exams at distance 5 counts 1
+	final private int SAMPLES = 1000;				//random moves priced to choose T0
+	final private double KEMPEMOVES = 0.1, SWAPMOVES = 0.01;	//probability of each move type, the rest are single exam moves
+
+	private Instance instance;
+	private long start, duration;
+	private String outputFile;
+	private SolutionWriter writer;
+	private long budget = 0;		//moves: if set, the temperature follows them instead of the time and the search stops there
+
+	public SimulatedAnnealing(Instance instance, long start, long duration, String outputFile) {
+		this.instance = instance;
+		this.start = start;
+		this.duration = duration;
+		this.outputFile = outputFile+"_DMOgroup07.sol";
+		this.writer = new SolutionWriter(this.outputFile, instance);
+	}
+
+	public void setBudget(long moves) {
+		this.budget = moves;
+	}
+
+	public void run() {
+		SplittableRandom rng = Rng.current();
+		Individual current = new Individual(instance);
+		writer.submit(current);
+		int nSlots = instance.getNumberOfSlots(), maxExam = instance.getMaxExam();
+		int[] acceptable = new int[nSlots];
+		long cost = 0, bestCost = 0;		//penalty (times number of students) relative to the initial solution
+		boolean atBest = true;				//current is the best found and has not been written yet
+
+		double t0 = initialTemperature(current, rng), t = t0, cooling = Math.log(TEND / t0);
+		long iterations = 0, accepted = 0, lastProgress = System.nanoTime();
+		while (true) {
+			if ((iterations & 1023) == 0) {		//the clock is read every 1024 moves
+				long now = System.nanoTime(), elapsed = now - start;
+				if (elapsed >= duration || (budget > 0 && iterations >= budget))
+					break;
+				t = t0 * Math.exp(cooling * (budget > 0 ? (double) iterations / budget : (double) elapsed / duration));
+				if (Telemetry.isInfo() && now - lastProgress >= Telemetry.PROGRESSINTERVAL) {
+					Telemetry.info(String.format("[%6.1fs] SA: %d moves, %d accepted, T=%.3f, penalty %.4f, best %.4f", elapsed / 1e9, iterations,
+							accepted, t, current.getPenalty(), current.getPenalty() + (float) (bestCost - cost) / instance.getNumberOfStudents()));
+					lastProgress = now;
+				}
+			}
+			iterations++;
+
+			double type = rng.nextDouble();
+			long delta;
+			if (type < SWAPMOVES) {
+				int slot1 = 1 + rng.nextInt(nSlots), slot2 = 1 + rng.nextInt(nSlots);
+				if (slot1 == slot2)
+					continue;
+				delta = current.getSlotSwapDelta(slot1, slot2);
+				if (!accept(delta, t, rng))
+					continue;
+				if (atBest && delta > 0)
+					writer.submit(current);
+				int[] newSlotOf = new int[nSlots + 1];
+				for (int s = 1; s <= nSlots; s++)
+					newSlotOf[s] = s;
+				newSlotOf[slot1] = slot2;
+				newSlotOf[slot2] = slot1;
+				current.applySlotPermutation(newSlotOf);
+			} else if (type < SWAPMOVES + KEMPEMOVES) {
+				int exam = 1 + rng.nextInt(maxExam), from = current.getSlot(exam), to = 1 + rng.nextInt(nSlots);
+				if (to == from)
+					continue;
+				int[] chain = current.kempeChain(exam, to);
+				delta = current.getKempeDelta(chain, from, to);
+				if (!accept(delta, t, rng))
+					continue;
+				if (atBest && delta > 0)
+					writer.submit(current);
+				current.applyKempeChain(chain, from, to);
+			} else {
+				int exam = 1 + rng.nextInt(maxExam), n = 0;
+				for (int s = 1; s <= nSlots; s++)
+					if (current.isAcceptable(exam, s))
+						acceptable[n++] = s;
+				if (n == 0)
+					continue;
+				int slot = acceptable[rng.nextInt(n)];
+				delta = current.getMoveDelta(exam, slot);
+				if (!accept(delta, t, rng))
+					continue;
+				if (atBest && delta > 0)
+					writer.submit(current);
+				current.moveExam(exam, slot);
+			}
+			accepted++;
+			if (delta > 0)
+				atBest = false;
+			cost += delta;
+			if (cost < bestCost) {
+				bestCost = cost;
+				Telemetry.solution(current.getPenalty());		//when it is found, it is written only when the search leaves it
+				atBest = true;
+			}
+		}
+		if (atBest)
+			writer.submit(current);
+		writer.close();
+		Telemetry.countIterations(iterations);
+		if (budget > 0 && iterations < budget)
+			Telemetry.error("SA: time is up after " + iterations + " of the " + budget + " moves of the budget");
+		Telemetry.info("SA: " + iterations + " moves, best penalty " + (current.getPenalty() + (float) (bestCost - cost) / instance.getNumberOfStudents()));
+	}
+
+	private boolean accept(long delta, double t, SplittableRandom rng) {
+		return delta <= 0 || rng.nextDouble() < Math.exp(-delta / t);
+	}
+
+	// T0 such that an average worsening single exam move is accepted with probability INITIALACCEPTANCE
+	private double initialTemperature(Individual ind, SplittableRandom rng) {
+		int nSlots = instance.getNumberOfSlots();
+		long sum = 0;
+		int worsening = 0;
+		for (int i = 0; i < SAMPLES; i++) {
+			int exam = 1 + rng.nextInt(instance.getMaxExam()), slot = 1 + rng.nextInt(nSlots);
+			if (!ind.isAcceptable(exam, slot))
+				continue;
+			int delta = ind.getMoveDelta(exam, slot);
+			if (delta > 0) {
+				sum += delta;
+				worsening++;
+			}
+		}
+		if (worsening == 0)
+			return TEND;
+		return Math.max(TEND, -((double) sum / worsening) / Math.log(INITIALACCEPTANCE));
+	}
+
+}
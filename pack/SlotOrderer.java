@@ -0,0 +1,82 @@
+package pack;
+
+// Reorders the timeslots of a feasible individual to reduce its proximity penalty: feasibility does not depend on the order of the slots.
+// First-improvement descent over the slot permutation with swap, insertion (or-opt) and reversal (2-opt) moves. Every candidate is evaluated
+// on the slot-pair conflict matrix of the individual, never on its exams.
+public class SlotOrderer {
+	private long timeLimit;		// nanoseconds per call
+	private int maxRounds;		// improving moves per call
+
+	public SlotOrderer(long timeLimit) {
+		this(timeLimit, Integer.MAX_VALUE);
+	}
+
+	// Bounded by the improving moves instead of the time, so that the result does not depend on the speed of the machine (seeded runs)
+	public SlotOrderer(int maxRounds) {
+		this(Long.MAX_VALUE, maxRounds);
+	}
+
+	private SlotOrderer(long timeLimit, int maxRounds) {
+		this.timeLimit = timeLimit;
+		this.maxRounds = maxRounds;
+	}
+
+	// Returns newSlotOf for Individual.applySlotPermutation, or null if no better order was found within the time limit
+	public int[] findOrder(Individual ind) {
+		long deadline = timeLimit == Long.MAX_VALUE ? Long.MAX_VALUE : System.nanoTime() + timeLimit;
+		int nSlots = ind.getNumberOfSlots();
+		int[] order = new int[nSlots + 1], candidate = new int[nSlots + 1];	// order[i] is the original slot placed in position i
+		for (int i = 1; i <= nSlots; i++)
+			order[i] = i;
+		long best = ind.getSlotOrderPenalty(order), initial = best, p = best;
+		boolean improved = true;
+
+		for (int round = 0; improved && round < maxRounds && System.nanoTime() < deadline; round++) {
+			improved = false;
+			for (int i = 1; i < nSlots && !improved; i++)
+				for (int j = i + 1; j <= nSlots && !improved; j++) {
+					// swap positions i and j
+					System.arraycopy(order, 0, candidate, 0, order.length);
+					candidate[i] = order[j];
+					candidate[j] = order[i];
+					if ((p = ind.getSlotOrderPenalty(candidate)) < best) {
+						improved = true;
+						break;
+					}
+					// reverse the segment i..j
+					for (int k = 0; k <= j - i; k++)
+						candidate[i + k] = order[j - k];
+					if ((p = ind.getSlotOrderPenalty(candidate)) < best) {
+						improved = true;
+						break;
+					}
+					// move the slot in position i to position j, and the one in position j to position i
+					System.arraycopy(order, i + 1, candidate, i, j - i);
+					candidate[j] = order[i];
+					if ((p = ind.getSlotOrderPenalty(candidate)) < best) {
+						improved = true;
+						break;
+					}
+					System.arraycopy(order, i, candidate, i + 1, j - i);
+					candidate[i] = order[j];
+					if ((p = ind.getSlotOrderPenalty(candidate)) < best) {
+						improved = true;
+						break;
+					}
+				}
+			if (improved) {
+				best = p;
+				int[] tmp = order;
+				order = candidate;
+				candidate = tmp;
+			}
+		}
+		if (best >= initial)
+			return null;
+		int[] newSlotOf = new int[nSlots + 1];
+		for (int i = 1; i <= nSlots; i++)
+			newSlotOf[order[i]] = i;
+		return newSlotOf;
+	}
+
+}
@@ -0,0 +1,153 @@
+package pack;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+// Checks a solution file against an instance, independently of Individual: every exam of the instance is assigned exactly once to an
+// existing slot and no student has two exams in the same slot. The penalty is computed student by student, enumerating the pairs of
+// exams of each one, which gives the same value of Individual.computePenalty. The file is read line by line, never held in memory.
+// Usage: SolutionValidator instanceName [solutionFile ...]		(defaults to instanceName_DMOgroup07.sol)
+public class SolutionValidator {
+	final private static int MAXERRORS = 10;		//messages kept per solution, the counters are always complete
+
+	public static class Result {
+		private int malformed, unknown, duplicates, invalidSlots, missing, conflicts;
+		private double penalty;
+		private List<String> errors = new ArrayList<>();
+
+		private void error(String message) {
+			if (errors.size() < MAXERRORS)
+				errors.add(message);
+		}
+
+		public boolean isFeasible() {
+			return malformed == 0 && unknown == 0 && duplicates == 0 && invalidSlots == 0 && missing == 0 && conflicts == 0;
+		}
+
+		// Only meaningful if every exam is assigned to a valid slot
+		public double getPenalty() {
+			return penalty;
+		}
+
+		// Pairs of exams of the same student in the same slot, each student counted separately
+		public int getConflicts() {
+			return conflicts;
+		}
+
+		public List<String> getErrors() {
+			return errors;
+		}
+
+		@Override
+		public String toString() {
+			if (isFeasible())
+				return String.format(Locale.ROOT, "feasible, penalty %.6f", penalty);
+			return String.format("infeasible: %d malformed lines, %d unknown exams, %d duplicates, %d invalid slots, %d missing exams, %d conflicts",
+					malformed, unknown, duplicates, invalidSlots, missing, conflicts);
+		}
+	}
+
+	public static Result validate(Instance instance, String solutionFile) throws IOException {
+		try (BufferedReader solution = Files.newBufferedReader(Paths.get(solutionFile))) {
+			return validate(instance, solution);
+		}
+	}
+
+	public static Result validate(Instance instance, BufferedReader solution) throws IOException {
+		Result result = new Result();
+		int maxExam = instance.getMaxExam(), nSlots = instance.getNumberOfSlots();
+		boolean[] exists = new boolean[maxExam + 1];
+		for (int exam : instance.getExamList())
+			exists[exam] = true;
+
+		int[] slotOf = new int[maxExam + 1];		//0 if not assigned
+		String line;
+		for (int n = 1; (line = solution.readLine()) != null; n++) {
+			line = line.trim();
+			if (line.isEmpty())
+				continue;
+			String[] parts = line.split("\\s+");
+			int exam, slot;
+			try {
+				if (parts.length != 2)
+					throw new NumberFormatException();
+				exam = Integer.parseInt(parts[0]);
+				slot = Integer.parseInt(parts[1]);
+			} catch (NumberFormatException e) {
+				result.malformed++;
+				result.error("line " + n + ": not an exam and a slot: " + line);
+				continue;
+			}
+			if (exam < 1 || exam > maxExam || !exists[exam]) {
+				result.unknown++;
+				result.error("line " + n + ": exam " + exam + " is not in the instance");
+			} else if (slotOf[exam] != 0) {
+				result.duplicates++;
+				result.error("line " + n + ": exam " + exam + " is assigned again");
+			} else if (slot < 1 || slot > nSlots) {
+				result.invalidSlots++;
+				result.error("line " + n + ": slot " + slot + " of exam " + exam + " is not in 1.." + nSlots);
+			} else
+				slotOf[exam] = slot;
+		}
+		for (int exam = 1; exam <= maxExam; exam++)
+			if (exists[exam] && slotOf[exam] == 0) {
+				result.missing++;
+				result.error("exam " + exam + " is not assigned");
+			}
+
+		// Per student enumeration: each pair of exams of a student costs 2^(5-distance) if they are at most 5 slots apart
+		long penalty = 0;
+		for (List<Integer> exams : instance.getListOfExamsPerStudent().values()) {
+			int size = exams.size();
+			for (int a = 0; a < size; a++) {
+				int examA = exams.get(a), slotA = examA <= maxExam ? slotOf[examA] : 0;
+				if (slotA == 0)
+					continue;
+				for (int b = a + 1; b < size; b++) {
+					int examB = exams.get(b), slotB = examB <= maxExam ? slotOf[examB] : 0;
+					if (slotB == 0 || examA == examB)		//the same exam listed twice is not a pair, as in the conflict matrix
+						continue;
+					int distance = Math.abs(slotA - slotB);
+					if (distance == 0) {
+						result.conflicts++;
+						result.error("exams " + examA + " and " + examB + " share slot " + slotA + " and a student");
+					} else if (distance <= Instance.MAXDISTANCE)
+						penalty += Instance.proximity(distance);
+				}
+			}
+		}
+		result.penalty = (double) penalty / instance.getNumberOfStudents();
+		return result;
+	}
+
+	public static void main(String[] args) {
+		if (args.length < 1) {
+			System.out.println("Usage: SolutionValidator instanceName [solutionFile ...]");
+			System.exit(-1);
+		}
+		Instance instance = new Instance(args[0]);
+		String[] files = args.length > 1 ? Arrays.copyOfRange(args, 1, args.length) : new String[] {args[0] + "_DMOgroup07.sol"};
+		boolean allFeasible = true;
+		for (String file : files) {
+			try {
+				Result result = validate(instance, file);
+				System.out.println(file + ": " + result);
+				for (String error : result.getErrors())
+					System.out.println("\t" + error);
+				allFeasible &= result.isFeasible();
+			} catch (IOException e) {
+				System.out.println(file + ": cannot be read (" + e.getMessage() + ")");
+				allFeasible = false;
+			}
+		}
+		System.exit(allFeasible ? 0 : 1);
+	}
+
+}
@@ -0,0 +1,82 @@
+package pack;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+// Writes the best solution on a background thread, so the search never waits for the disk. Submissions are coalesced: a solution not yet
+// written is replaced by the newer one. Each write goes to a temporary file renamed over the output, so a reader never sees a partial file.
+// The last submitted solution is written on close(), or by a shutdown hook if the JVM ends before.
+public class SolutionWriter {
+	private final Path output, temp;
+	private final int[] examList;
+	private final AtomicReference<int[]> pending = new AtomicReference<>();	// assignment waiting to be written
+	private final Thread thread;
+	private volatile boolean closed = false;
+
+	public SolutionWriter(String fileName, Instance instance) {
+		this.output = Paths.get(fileName);
+		this.temp = Paths.get(fileName + ".tmp");
+		this.examList = instance.getExamList().stream().mapToInt(Integer::intValue).toArray();
+		this.thread = new Thread(this::run, "solution-writer");
+		this.thread.setDaemon(true);
+		this.thread.start();
+		Runtime.getRuntime().addShutdownHook(new Thread(this::close));
+	}
+
+	// Never blocks: the assignment is copied and handed to the writer thread
+	public void submit(Individual ind) {
+		Telemetry.solution(ind.getPenalty());
+		pending.set(ind.getAssignment().clone());
+		LockSupport.unpark(thread);
+	}
+
+	// Write the last submitted solution and stop the writer thread
+	public void close() {
+		closed = true;
+		LockSupport.unpark(thread);
+		try {
+			thread.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void run() {
+		while (true) {
+			int[] assignment = pending.getAndSet(null);
+			if (assignment != null)
+				write(assignment);
+			else if (closed)
+				return;
+			else
+				LockSupport.park(this);
+		}
+	}
+
+	private void write(int[] assignment) {
+		try {
+			try (BufferedWriter bw = Files.newBufferedWriter(temp)) {
+				for (int exam : examList) {
+					bw.write(exam + " " + assignment[exam]);
+					bw.newLine();
+				}
+			}
+			try {
+				Files.move(temp, output, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temp, output, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} catch (IOException e) {
+			Telemetry.error("FAILED PRINTING RESULTS! R.I.P.");
+			e.printStackTrace();
+		}
+	}
+
+}
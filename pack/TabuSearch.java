@@ -0,0 +1,163 @@
+package pack;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+// Single-solution alternative to the GA. At every iteration the whole neighbourhood of single exam moves to acceptable slots is priced
+// with the move cost table, and the best move is applied even if it worsens the solution. Only the exams with a penalty are moved. An exam leaving a slot cannot go back to it
+// for a few iterations (tabu), unless that would give a new best solution (aspiration). When no new best is found for a while, a few random
+// Kempe chains move the search to another region.
+public class TabuSearch {
+	final private int TENURE = 10, TENURERANGE = 10;	//iterations an (exam, slot) pair stays tabu: TENURE + random(TENURERANGE)
+	final private int STAGNATION = 200;		//iterations without a new best before a perturbation
+	final private int KICKS = 10;			//random Kempe chains applied by a perturbation
+	final private static int INDEXBITS = 24;		//of exam*(nSlots+1)+slot in a packed move, the random tie break takes the other 8 of the low half
+
+	private Instance instance;
+	private long start, duration;
+	private String outputFile;
+	private SolutionWriter writer;
+	private long budget = 0;			//iterations, 0 to stop only on the time
+	private ForkJoinPool executor;		//null when the neighbourhood is evaluated on the calling thread
+	private int chunks;					//parts of the exams evaluated in parallel
+
+	private Individual current;
+	private int[] tabu;					//at position exam*(nSlots+1)+slot the last iteration in which exam cannot move to slot
+	private long iteration, cost, bestCost;		//costs are penalties (times number of students) relative to the initial solution
+
+	//threads > 1 evaluates the neighbourhood in parallel on a pool of that size
+	public TabuSearch(Instance instance, long start, long duration, String outputFile, int threads) {
+		this.instance = instance;
+		this.start = start;
+		this.duration = duration;
+		this.outputFile = outputFile+"_DMOgroup07.sol";
+		if ((long) (instance.getMaxExam() + 1) * (instance.getNumberOfSlots() + 1) > 1 << INDEXBITS)
+			throw new IllegalArgumentException("Too many exams and slots for the moves of the tabu search");
+		this.writer = new SolutionWriter(this.outputFile, instance);
+		if (threads > 1) {
+			this.executor = new ForkJoinPool(threads);
+			this.chunks = threads;
+		}
+	}
+
+	public void setBudget(long iterations) {
+		this.budget = iterations;
+	}
+
+	public void run() {
+		SplittableRandom rng = Rng.current();
+		current = new Individual(instance);
+		writer.submit(current);
+		int nSlots = instance.getNumberOfSlots();
+		tabu = new int[(instance.getMaxExam() + 1) * (nSlots + 1)];
+		boolean atBest = true;				//current is the best found and has not been written yet
+		long lastImprovement = 0;
+		long lastProgress = System.nanoTime();
+
+		for (iteration = 1; ; iteration++) {
+			long now = System.nanoTime();
+			if (now - start >= duration || (budget > 0 && iteration > budget))
+				break;
+			if (Telemetry.isInfo() && now - lastProgress >= Telemetry.PROGRESSINTERVAL) {
+				Telemetry.info(String.format("[%6.1fs] TS: %d iterations, penalty %.4f, best %.4f", (now - start) / 1e9, iteration,
+						current.getPenalty(), current.getPenalty() + (float) (bestCost - cost) / instance.getNumberOfStudents()));
+				lastProgress = now;
+			}
+
+			if (iteration - lastImprovement > STAGNATION) {		//perturbation: a few random Kempe chains
+				if (atBest)
+					writer.submit(current);
+				atBest = false;
+				for (int k = 0; k < KICKS; k++) {
+					int exam = 1 + rng.nextInt(instance.getMaxExam()), from = current.getSlot(exam), to = 1 + rng.nextInt(nSlots);
+					if (to == from)
+						continue;
+					int[] chain = current.kempeChain(exam, to);
+					cost += current.getKempeDelta(chain, from, to);
+					current.applyKempeChain(chain, from, to);
+				}
+				lastImprovement = iteration;
+				if (cost < bestCost) {
+					bestCost = cost;
+					Telemetry.solution(current.getPenalty());		//when it is found, it is written only when the search leaves it
+					atBest = true;
+				}
+			}
+			long move = bestMove();
+			if (move == Long.MAX_VALUE)		//every move is tabu
+				continue;
+			int delta = (int) (move >> 32), index = (int) move & ((1 << INDEXBITS) - 1), exam = index / (nSlots + 1), slot = index % (nSlots + 1);
+			if (atBest && delta > 0)
+				writer.submit(current);
+			tabu[exam*(nSlots + 1) + current.getSlot(exam)] = (int) iteration + TENURE + rng.nextInt(TENURERANGE);
+			current.moveExam(exam, slot);
+			cost += delta;
+			if (delta > 0)
+				atBest = false;
+			if (cost < bestCost) {
+				bestCost = cost;
+				Telemetry.solution(current.getPenalty());
+				atBest = true;
+				lastImprovement = iteration;
+			}
+		}
+		if (atBest)
+			writer.submit(current);
+		writer.close();
+		if (executor != null)
+			executor.shutdown();
+		Telemetry.countIterations(iteration - 1);		//the last one is not run
+		if (budget > 0 && iteration <= budget)
+			Telemetry.error("TS: time is up after " + (iteration - 1) + " of the " + budget + " iterations of the budget");
+		Telemetry.info("TS: " + iteration + " iterations, best penalty " + (current.getPenalty() + (float) (bestCost - cost) / instance.getNumberOfStudents()));
+	}
+
+	// Best admissible move, packed as delta << 32 | random << INDEXBITS | exam*(nSlots+1)+slot to be compared as a single long: the random bits
+	// break the ties, otherwise the search would walk forever over the same moves of equal cost. Long.MAX_VALUE if there is none
+	private long bestMove() {
+		int maxExam = instance.getMaxExam();
+		if (executor == null)
+			return bestMove(1, maxExam, Rng.current());
+		List<Callable<Long>> parts = new ArrayList<>();
+		for (int c = 0; c < chunks; c++) {
+			int from = 1 + c * maxExam / chunks, to = (c + 1) * maxExam / chunks;
+			SplittableRandom rng = Rng.split();		//the tie breaks of a part do not depend on the worker that evaluates it
+			parts.add(() -> bestMove(from, to, rng));
+		}
+		long best = Long.MAX_VALUE;
+		try {
+			for (Future<Long> f : executor.invokeAll(parts))
+				best = Math.min(best, f.get());
+		} catch (InterruptedException | ExecutionException e) {
+			throw new RuntimeException(e);
+		}
+		return best;
+	}
+
+	// Best admissible move of the exams from..to
+	private long bestMove(int from, int to, SplittableRandom rng) {
+		int nSlots = instance.getNumberOfSlots();
+		long best = Long.MAX_VALUE;
+		for (int exam = from; exam <= to; exam++) {
+			if (current.getExamPenalty(exam) == 0)		//it cannot improve, and moving it would only walk on a plateau
+				continue;
+			for (int slot = 1; slot <= nSlots; slot++) {
+				if (!current.isAcceptable(exam, slot))
+					continue;
+				int delta = current.getMoveDelta(exam, slot);
+				if (tabu[exam*(nSlots + 1) + slot] >= iteration && cost + delta >= bestCost)		//tabu, and no aspiration
+					continue;
+				long move = ((long) delta << 32) | ((long) rng.nextInt(1 << (32 - INDEXBITS)) << INDEXBITS) | (exam*(nSlots + 1) + slot);
+				if (move < best)
+					best = move;
+			}
+		}
+		return best;
+	}
+
+}
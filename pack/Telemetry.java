@@ -0,0 +1,80 @@
+package pack;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Console output of the search, filtered by level. Checking a level is a read of a static field, so messages that are expensive to build
+// are guarded with isInfo()/isDebug() and cost nothing in the hot loop when their level is disabled.
+public final class Telemetry {
+	public static final int QUIET = 0;		// errors only
+	public static final int INFO = 1;		// progress line and main events
+	public static final int DEBUG = 2;		// details of every iteration
+	public static final long PROGRESSINTERVAL = TimeUnit.SECONDS.toNanos(1);	// between two progress lines of a population
+
+	private static int level = INFO;		// set by Main before the search threads are started
+
+	// Totals of the run, for the summary of Main: the engines add their iterations when they stop, the writers report every solution
+	private static final LongAdder iterations = new LongAdder();
+	private static float bestPenalty = Float.MAX_VALUE;
+	private static long bestTime;			// System.nanoTime() of the first submission of bestPenalty
+
+	private Telemetry() {
+	}
+
+	public static void setLevel(int level) {
+		Telemetry.level = level;
+	}
+
+	public static boolean isInfo() {
+		return level >= INFO;
+	}
+
+	public static boolean isDebug() {
+		return level >= DEBUG;
+	}
+
+	public static void info(String message) {
+		if (level >= INFO)
+			System.out.println(message);
+	}
+
+	public static void debug(String message) {
+		if (level >= DEBUG)
+			System.out.println(message);
+	}
+
+	public static void error(String message) {
+		System.err.println(message);
+	}
+
+	public static void countIterations(long n) {
+		iterations.add(n);
+	}
+
+	public static long getIterations() {
+		return iterations.sum();
+	}
+
+	public static synchronized void solution(float penalty) {
+		if (penalty < bestPenalty) {
+			bestPenalty = penalty;
+			bestTime = System.nanoTime();
+		}
+	}
+
+	public static synchronized float getBestPenalty() {
+		return bestPenalty;
+	}
+
+	public static synchronized long getBestTime() {
+		return bestTime;
+	}
+
+	// Sampled progress line, tagged with the name of the thread running the population (e.g. the island)
+	public static void progress(long elapsed, int iterations, double iterationsPerSecond, float bestPenalty, double averagePenalty) {
+		if (level >= INFO)
+			System.out.println(String.format("[%6.1fs] %s: iteration %d (%.0f it/s), best penalty %.4f, average penalty %.4f",
+					elapsed / 1e9, Thread.currentThread().getName(), iterations, iterationsPerSecond, bestPenalty, averagePenalty));
+	}
+
+}